@@ -0,0 +1,20 @@
+package com.example.terrace.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки локального сервиса картинок (images.*)
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "images")
+public class ImageProperties {
+
+    // Каталог, куда при старте копируются собранные варианты (для отдачи через sendfile).
+    // Источники, ширины и качество задаются при сборке - src/main/images, pom.xml
+    private String storeDir = "./data/images";
+}
@@ -0,0 +1,53 @@
+package com.example.terrace.config;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Отдельная учётная запись для сбора метрик (HTTP Basic на /actuator/prometheus).
+ * Не связана с таблицей users и JWT: скрейпер не логинится и не живёт на 24-часовом токене.
+ * Пустой пароль - сбор метрик выключен.
+ */
+public class MetricsScrapeAuthenticationProvider implements AuthenticationProvider {
+
+    public static final String ROLE = "METRICS";
+
+    private final String username;
+    private final byte[] password;
+
+    public MetricsScrapeAuthenticationProvider(String username, String password) {
+        this.username = username == null ? "" : username;
+        this.password = password == null ? new byte[0] : password.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean isEnabled() {
+        return StringUtils.hasText(username) && password.length > 0;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        String presented = authentication.getCredentials() == null ? "" : authentication.getCredentials().toString();
+        // Сравнение за постоянное время и для имени, и для пароля
+        boolean matches = isEnabled()
+                & MessageDigest.isEqual(username.getBytes(StandardCharsets.UTF_8),
+                        authentication.getName().getBytes(StandardCharsets.UTF_8))
+                & MessageDigest.isEqual(password, presented.getBytes(StandardCharsets.UTF_8));
+        if (!matches) {
+            throw new BadCredentialsException("Bad metrics scrape credentials");
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(
+                username, null, AuthorityUtils.createAuthorityList("ROLE_" + ROLE));
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
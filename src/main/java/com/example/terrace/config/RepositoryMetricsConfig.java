@@ -0,0 +1,49 @@
+package com.example.terrace.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Медленные вызовы репозиториев в лог с именем метода.
+ * Время каждого метода также пишется Spring Boot в spring.data.repository.invocations,
+ * а Hibernate отдельно логирует медленный SQL (org.hibernate.SQL_SLOW)
+ */
+@Slf4j
+@Configuration
+public class RepositoryMetricsConfig {
+
+    // static - BeanPostProcessor должен создаваться раньше остальных бинов конфигурации
+    @Bean
+    static BeanPostProcessor slowRepositoryInvocationLogger(Environment environment) {
+        Duration threshold = environment.getProperty("repository.slow-threshold", Duration.class, Duration.ofMillis(200));
+        RepositoryMethodInvocationListener listener = invocation -> {
+            long millis = invocation.getDuration(TimeUnit.MILLISECONDS);
+            if (millis >= threshold.toMillis()) {
+                log.warn("Slow repository call {}.{} took {} ms ({})",
+                        invocation.getRepositoryInterface().getSimpleName(),
+                        invocation.getMethod().getName(),
+                        millis,
+                        invocation.getResult() != null ? invocation.getResult().getState() : "UNKNOWN");
+            }
+        };
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(listener));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.terrace.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Задачи по расписанию (синхронизация отзыва токенов, ротация ключей, пересборка
+ * фильтра email, проверка версии меню, flush журнала броней).
+ * scheduling.enabled=false отключает их - например, в тестах, считающих SQL-запросы
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -2,20 +2,31 @@
 package com.example.terrace.config;
 
 import com.example.terrace.util.JwtRequestFilter;
+import com.example.terrace.util.PageCacheFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.header.HeaderWriterFilter;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
@@ -24,10 +35,82 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfiguration {
 
     private final JwtRequestFilter jwtRequestFilter;
+    private final PageCacheFilter pageCacheFilter;
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
 
+    // Статика без цепочки Spring Security и без JWT: cookie jwt-token на них не разбирается.
+    // Только файловые ресурсы: ответы контроллеров (например /media/**) остаются в цепочке ради заголовков безопасности
+    @Value("${security.static-paths:/css/**,/js/**,/images/**,/bundles/**,/webjars/**,/favicon.ico}")
+    private List<String> staticPaths;
+
+    /**
+     * Статические ресурсы публичны и не зависят от пользователя, поэтому
+     * полностью минуют фильтры безопасности (и их заголовки Cache-Control)
+     */
+    @Bean
+    public WebSecurityCustomizer staticResourcesCustomizer() {
+        return web -> web.ignoring().requestMatchers(staticPaths.toArray(String[]::new));
+    }
+
+    /**
+     * JwtRequestFilter работает только внутри цепочки безопасности:
+     * без этого Boot регистрирует его ещё и обычным servlet-фильтром для всех URL
+     */
+    @Bean
+    public FilterRegistrationBean<JwtRequestFilter> jwtRequestFilterRegistration(JwtRequestFilter filter) {
+        FilterRegistrationBean<JwtRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * PageCacheFilter - тоже только в цепочке, сразу за HeaderWriterFilter
+     */
+    @Bean
+    public FilterRegistrationBean<PageCacheFilter> pageCacheFilterRegistration(PageCacheFilter filter) {
+        FilterRegistrationBean<PageCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Value("${security.metrics-scrape.username:prometheus}")
+    private String metricsScrapeUsername;
+
+    @Value("${security.metrics-scrape.password:}")
+    private String metricsScrapePassword;
+
+    /**
+     * /actuator/prometheus - своя цепочка с HTTP Basic и отдельной учётной записью скрейпера,
+     * без JWT и без поиска в users. Без пароля эндпоинт закрыт для всех
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain metricsScrapeFilterChain(HttpSecurity http) throws Exception {
+        MetricsScrapeAuthenticationProvider provider =
+                new MetricsScrapeAuthenticationProvider(metricsScrapeUsername, metricsScrapePassword);
+        http
+                .securityMatcher("/actuator/prometheus")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> {
+                    if (provider.isEnabled()) {
+                        auth.anyRequest().hasRole(MetricsScrapeAuthenticationProvider.ROLE);
+                    } else {
+                        auth.anyRequest().denyAll();
+                    }
+                })
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .authenticationManager(new ProviderManager(provider))
+                .httpBasic(Customizer.withDefaults())
+                .formLogin(AbstractHttpConfigurer::disable);
+
+        return http.build();
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
@@ -40,13 +123,19 @@ public class SecurityConfiguration {
                         // WEB эндпоинты (HTML формы)
                         .requestMatchers("/login", "/register").permitAll()
                         .requestMatchers("/", "/home").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/menu", "/menu/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/reservation").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/reservations/availability").permitAll()
+                        // Картинки MediaController: публичные, JWT не разбирается (см. JwtRequestFilter)
+                        .requestMatchers(HttpMethod.GET, "/media/**").permitAll()
 
-                        // Статические ресурсы
-                        .requestMatchers("/css/**", "/js/**", "/images/**", "/webjars/**").permitAll()
-                        .requestMatchers("/favicon.ico", "/error").permitAll()
+                        // Статические ресурсы - см. staticResourcesCustomizer
+                        .requestMatchers("/error").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
 
                         // Защищенные области
-                        .requestMatchers("/api/admin/**", "/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/admin/**", "/admin/**", "/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/dashboard/**").authenticated()
 
                         .anyRequest().authenticated()
@@ -59,6 +148,8 @@ public class SecurityConfiguration {
                 .formLogin(AbstractHttpConfigurer::disable)
                 .httpBasic(AbstractHttpConfigurer::disable);
 
+        // Попадание в кэш страниц отвечает до JWT и авторизации, но с заголовками безопасности
+        http.addFilterAfter(pageCacheFilter, HeaderWriterFilter.class);
         http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -0,0 +1,87 @@
+package com.example.terrace.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сборка CSS при старте: склейка файлов главной в один бандл, минификация
+ * и заранее сжатая .gz копия. Бандлы отдаются по /bundles/** с отпечатком
+ * содержимого в URL (см. WebConfig).
+ */
+@Slf4j
+@Component
+public class StaticAssetPipeline {
+
+    private static final Pattern COMMENTS = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern AROUND_PUNCTUATION = Pattern.compile("\\s*([{};,])\\s*");
+
+    @Value("${assets.output-dir:${java.io.tmpdir}/terrace-assets}")
+    private Path outputDir;
+
+    // Порядок важен - как в исходных <link> главной страницы
+    @Value("${assets.bundle.home-css:css/footer.css,css/menu-sections.css,css/about-section.css,css/reservation-section.css,css/contact-section.css,css/interior-section.css}")
+    private List<String> homeCss;
+
+    @PostConstruct
+    void build() throws IOException {
+        writeBundle("home.css", homeCss);
+    }
+
+    public Path getBundleDir() {
+        return outputDir.resolve("bundles");
+    }
+
+    private void writeBundle(String name, List<String> sources) throws IOException {
+        StringBuilder css = new StringBuilder();
+        for (String source : sources) {
+            try (InputStream in = new ClassPathResource("static/" + source.trim()).getInputStream()) {
+                css.append(new String(in.readAllBytes(), StandardCharsets.UTF_8)).append('\n');
+            }
+        }
+        byte[] minified = minify(css.toString()).getBytes(StandardCharsets.UTF_8);
+
+        Path dir = getBundleDir();
+        Files.createDirectories(dir);
+        Path target = dir.resolve(name);
+        writeAtomically(target, minified);
+
+        Path gzipTarget = dir.resolve(name + ".gz");
+        Path tmp = Files.createTempFile(dir, name, ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+            out.write(minified);
+        }
+        Files.move(tmp, gzipTarget, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        log.info("CSS bundle {} built from {} files: {} bytes ({} gzipped)",
+                name, sources.size(), minified.length, Files.size(gzipTarget));
+    }
+
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        Files.write(tmp, content);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Консервативная минификация: комментарии и лишние пробелы, без переписывания правил
+    static String minify(String css) {
+        String result = COMMENTS.matcher(css).replaceAll("");
+        result = WHITESPACE.matcher(result).replaceAll(" ");
+        result = AROUND_PUNCTUATION.matcher(result).replaceAll("$1");
+        return result.trim();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.terrace.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статика с отпечатком содержимого в URL: /css/home-<md5>.css и т.п.
+ * Такие URL никогда не меняют содержимое, поэтому отдаются с
+ * Cache-Control: immutable на год; так же отдаются бандлы /bundles/**.
+ * Те же файлы по URL без отпечатка (/css/footer.css) могут измениться с
+ * релизом - им короткий max-age и ревалидация по Last-Modified.
+ * Готовые .gz/.br копии отдаются EncodedResourceResolver по Accept-Encoding.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePublic()
+            .immutable();
+
+    private static final CacheControl REVALIDATE = CacheControl.maxAge(10, TimeUnit.MINUTES)
+            .cachePublic();
+
+    private final StaticAssetPipeline staticAssetPipeline;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/bundles/**")
+                .addResourceLocations(staticAssetPipeline.getBundleDir().toUri().toString())
+                .setCacheControl(IMMUTABLE)
+                .resourceChain(true)
+                // Порядок важен: версия считается по несжатому файлу
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+
+        registry.addResourceHandler("/css/**")
+                .addResourceLocations("classpath:/static/css/")
+                .setCacheControl(REVALIDATE)
+                .resourceChain(true)
+                .addResolver(new VersionedCacheControlResolver(IMMUTABLE))
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+
+        // Встроенный кэш resourceChain(true) не учитывает Accept и отдал бы WebP всем клиентам
+        // после первого запроса из браузера с WebP - поэтому свой кэш с Accept в ключе.
+        // WebP подменяется после проверки версии: отпечаток в URL считается по JPEG
+        registry.addResourceHandler("/images/**")
+                .addResourceLocations("classpath:/static/images/")
+                .setCacheControl(REVALIDATE)
+                .resourceChain(false)
+                .addResolver(new WebpAwareCachingResourceResolver(new ConcurrentMapCache("images-resource-chain-cache")))
+                .addResolver(new VersionedCacheControlResolver(IMMUTABLE))
+                .addResolver(new WebpResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Содержимое /images/** зависит от Accept (WebP), кэши должны это учитывать
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/images/**");
+    }
+
+    // Переписывает @{/css/...} в шаблонах на URL с отпечатком
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.terrace.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.CachingResourceResolver;
+
+/**
+ * Кэш разрешённых ресурсов, у которого в ключе есть поддержка WebP из Accept:
+ * клиенты с WebP и без него получают разные записи.
+ */
+public class WebpAwareCachingResourceResolver extends CachingResourceResolver {
+
+    public WebpAwareCachingResourceResolver(Cache cache) {
+        super(cache);
+    }
+
+    @Override
+    protected String computeKey(@Nullable HttpServletRequest request, String requestPath) {
+        String key = super.computeKey(request, requestPath);
+        return request != null && WebpResourceResolver.acceptsWebp(request) ? key + "+webp" : key;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.terrace.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Отдаёт WebP-вариант картинки (photo.jpg -> photo.jpg.webp), если он есть
+ * рядом с оригиналом и браузер присылает Accept: image/webp.
+ */
+public class WebpResourceResolver extends AbstractResourceResolver {
+
+    private static final String WEBP_SUFFIX = ".webp";
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource original = chain.resolveResource(request, requestPath, locations);
+        if (original == null || request == null || requestPath.endsWith(WEBP_SUFFIX)) {
+            return original;
+        }
+
+        if (!acceptsWebp(request)) {
+            return original;
+        }
+
+        try {
+            Resource webp = original.createRelative(original.getFilename() + WEBP_SUFFIX);
+            return webp.isReadable() ? webp : original;
+        } catch (IOException e) {
+            return original;
+        }
+    }
+
+    static boolean acceptsWebp(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains("image/webp");
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+}
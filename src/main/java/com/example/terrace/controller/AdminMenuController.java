@@ -0,0 +1,96 @@
+package com.example.terrace.controller;
+
+import com.example.terrace.dto.menu.MenuCategoryView;
+import com.example.terrace.dto.menu.MenuItemForm;
+import com.example.terrace.dto.menu.MenuItemView;
+import com.example.terrace.mapper.MenuMapper;
+import com.example.terrace.service.MenuAdminService;
+import com.example.terrace.service.MenuCatalog;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@RequestMapping("/admin/menu")
+public class AdminMenuController {
+
+    private final MenuCatalog menuCatalog;
+    private final MenuAdminService menuAdminService;
+    private final MenuMapper menuMapper;
+
+    @GetMapping
+    public String showMenu(Model model) {
+        model.addAttribute("categories", menuCatalog.getCategories());
+        model.addAttribute("itemForm", new MenuItemForm());
+        return "admin/menu";
+    }
+
+    @GetMapping("/items/{id}")
+    public String showEditForm(@PathVariable Long id, Model model) {
+        for (MenuCategoryView category : menuCatalog.getCategories()) {
+            for (MenuItemView item : category.items()) {
+                if (item.id().equals(id)) {
+                    model.addAttribute("itemId", id);
+                    model.addAttribute("itemForm", menuMapper.toForm(category.slug(), item));
+                    model.addAttribute("categories", menuCatalog.getCategories());
+                    return "admin/menu-item";
+                }
+            }
+        }
+        return "redirect:/admin/menu";
+    }
+
+    @PostMapping("/items")
+    public String createItem(
+            @Valid @ModelAttribute("itemForm") MenuItemForm itemForm,
+            BindingResult bindingResult,
+            Model model,
+            RedirectAttributes redirectAttributes) {
+
+        if (bindingResult.hasErrors()) {
+            model.addAttribute("categories", menuCatalog.getCategories());
+            return "admin/menu";
+        }
+
+        menuAdminService.createItem(itemForm);
+        redirectAttributes.addFlashAttribute("successMessage", "Menu item created");
+        return "redirect:/admin/menu";
+    }
+
+    @PostMapping("/items/{id}")
+    public String updateItem(
+            @PathVariable Long id,
+            @Valid @ModelAttribute("itemForm") MenuItemForm itemForm,
+            BindingResult bindingResult,
+            Model model,
+            RedirectAttributes redirectAttributes) {
+
+        if (bindingResult.hasErrors()) {
+            model.addAttribute("itemId", id);
+            model.addAttribute("categories", menuCatalog.getCategories());
+            return "admin/menu-item";
+        }
+
+        menuAdminService.updateItem(id, itemForm);
+        redirectAttributes.addFlashAttribute("successMessage", "Menu item updated");
+        return "redirect:/admin/menu";
+    }
+
+    @PostMapping("/items/{id}/delete")
+    public String deleteItem(@PathVariable Long id, RedirectAttributes redirectAttributes) {
+        menuAdminService.deleteItem(id);
+        redirectAttributes.addFlashAttribute("successMessage", "Menu item deleted");
+        return "redirect:/admin/menu";
+    }
+}
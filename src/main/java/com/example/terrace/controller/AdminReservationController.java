@@ -0,0 +1,38 @@
+package com.example.terrace.controller;
+
+import com.example.terrace.dto.reservation.ReservationResponse;
+import com.example.terrace.service.ReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/reservations")
+public class AdminReservationController {
+
+    private final ReservationService reservationService;
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<ReservationResponse> cancel(@PathVariable Long id) {
+        return toResponseEntity(reservationService.cancel(id));
+    }
+
+    /**
+     * Отмена по reference - работает и для брони, принятой в журнал, но ещё не записанной в БД
+     */
+    @PostMapping("/by-reference/{reference}/cancel")
+    public ResponseEntity<ReservationResponse> cancelByReference(@PathVariable String reference) {
+        return toResponseEntity(reservationService.cancel(reference));
+    }
+
+    private static ResponseEntity<ReservationResponse> toResponseEntity(ReservationResponse response) {
+        if (response.getOutcome() == ReservationResponse.Outcome.NOT_FOUND) {
+            return ResponseEntity.status(404).body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.terrace.controller;
+
+import com.example.terrace.dto.user.EmailAvailabilityResponse;
+import com.example.terrace.service.RegisterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.regex.Pattern;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/auth")
+public class AuthApiController {
+
+    // Грубая проверка формата до обращения к фильтру/БД; строгая - @Email при регистрации
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final int MAX_EMAIL_LENGTH = 255;
+
+    private final RegisterService registerService;
+
+    /**
+     * Проверка email при вводе на форме регистрации.
+     * Свободные email отвечаются из Bloom-фильтра без запроса в PostgreSQL
+     */
+    @GetMapping("/email-available")
+    public ResponseEntity<EmailAvailabilityResponse> emailAvailable(@RequestParam String email) {
+        String trimmed = email.trim();
+        if (trimmed.length() > MAX_EMAIL_LENGTH || !EMAIL_PATTERN.matcher(trimmed).matches()) {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(new EmailAvailabilityResponse(trimmed, false, false));
+        }
+
+        boolean available = registerService.isEmailAvailable(trimmed);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(new EmailAvailabilityResponse(trimmed, true, available));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.terrace.controller;
+
+import com.example.terrace.util.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    /**
+     * Публичные ключи проверки JWT (ES256) для других сервисов.
+     * Следующий ключ публикуется за jwt.keys.rotation.pre-publish до активации -
+     * с запасом больше этого max-age
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(JwtKeyRing.JWKS_MAX_AGE).cachePublic())
+                .body(Map.of("keys", keyRing.publicJwks()));
+    }
+}
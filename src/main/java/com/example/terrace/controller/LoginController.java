@@ -11,6 +11,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -65,7 +66,14 @@ public class LoginController {
     }
 
     @GetMapping("/logout")
-    public String logout(HttpServletResponse response, RedirectAttributes redirectAttributes) {
+    public String logout(@CookieValue(name = "jwt-token", required = false) String token,
+                         HttpServletResponse response,
+                         RedirectAttributes redirectAttributes) {
+        // Отзываем токен - его копия тоже перестаёт работать
+        if (token != null) {
+            authService.logout(token);
+        }
+
         // Очищаем cookie
         Cookie jwtCookie = new Cookie("jwt-token", null);
         jwtCookie.setHttpOnly(true);
@@ -0,0 +1,81 @@
+package com.example.terrace.controller;
+
+import com.example.terrace.service.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/media")
+public class MediaController {
+
+    // Атрибуты Tomcat для отдачи файла через sendfile (без копирования в user space)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(30)).cachePublic();
+
+    private final ImageVariantService imageVariantService;
+
+    /**
+     * Вариант картинки заданной ширины: /media/hero/800.jpg
+     */
+    @GetMapping("/{name}/{width:\\d+}.{format}")
+    public ResponseEntity<Resource> variant(@PathVariable String name,
+                                            @PathVariable int width,
+                                            @PathVariable String format,
+                                            WebRequest webRequest,
+                                            HttpServletRequest request,
+                                            HttpServletResponse response) {
+
+        Optional<ImageVariantService.Variant> found = imageVariantService.getVariant(name, width, format);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ImageVariantService.Variant variant = found.get();
+        if (webRequest.checkNotModified(variant.etag())) {
+            return null; // 304 уже выставлен WebRequest
+        }
+
+        // Полный ответ без Range - отдаём через sendfile, если коннектор это умеет
+        if (request.getHeader(HttpHeaders.RANGE) == null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(variant.contentType());
+            response.setContentLengthLong(variant.size());
+            response.setHeader(HttpHeaders.ETAG, variant.etag());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL.getHeaderValue());
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            request.setAttribute(SENDFILE_FILENAME, variant.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, variant.size());
+            return null;
+        }
+
+        // Range-запросы (206) обрабатывает Spring по Resource
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(variant.contentType()))
+                .eTag(variant.etag())
+                .cacheControl(CACHE_CONTROL)
+                .body(new FileSystemResource(variant.path()));
+    }
+}
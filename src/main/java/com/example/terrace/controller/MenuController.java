@@ -0,0 +1,36 @@
+package com.example.terrace.controller;
+
+import com.example.terrace.dto.menu.MenuCategoryView;
+import com.example.terrace.service.MenuCatalog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.server.ResponseStatusException;
+
+@Controller
+@RequiredArgsConstructor
+@RequestMapping("/menu")
+public class MenuController {
+
+    private final MenuCatalog menuCatalog;
+
+    @GetMapping
+    public String menu() {
+        return "redirect:/menu/breakfast";
+    }
+
+    // Страница категории отдаётся из снимка меню, без запросов в БД
+    @GetMapping("/{slug}")
+    public String category(@PathVariable String slug, Model model) {
+        MenuCategoryView category = menuCatalog.findCategory(slug)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        model.addAttribute("category", category);
+        model.addAttribute("categories", menuCatalog.getCategories());
+        return "menu";
+    }
+}
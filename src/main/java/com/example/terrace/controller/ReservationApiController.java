@@ -0,0 +1,55 @@
+package com.example.terrace.controller;
+
+import com.example.terrace.dto.reservation.AvailabilityResponse;
+import com.example.terrace.mapper.ReservationMapper;
+import com.example.terrace.service.ReservationService;
+import com.example.terrace.service.SlotCapacityIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/reservations")
+public class ReservationApiController {
+
+    // Отличает ETag после рестарта: версии дня начинаются заново
+    private static final long INSTANCE_EPOCH = System.currentTimeMillis();
+
+    private final ReservationService reservationService;
+    private final ReservationMapper reservationMapper;
+
+    /**
+     * Остаток мест по слотам дня. Отдаётся из in-memory индекса,
+     * повторные запросы браузеров/прокси ревалидируются по ETag/Last-Modified
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> availability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest webRequest) {
+
+        // Эндпоинт публичный: дни вне окна бронирования не загружаются в индекс
+        if (!reservationService.isBookable(date)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        SlotCapacityIndex.DayAvailability availability = reservationService.getAvailability(date);
+        String etag = "\"" + date + "-" + INSTANCE_EPOCH + "-" + availability.version() + "\"";
+
+        if (webRequest.checkNotModified(etag, availability.lastModified())) {
+            return null; // 304 уже выставлен WebRequest
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(reservationMapper.toAvailabilityResponse(availability));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.terrace.controller;
+
+import com.example.terrace.dto.reservation.ReservationRequest;
+import com.example.terrace.dto.reservation.ReservationResponse;
+import com.example.terrace.service.ReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@RequestMapping("/reservation")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @PostMapping
+    public String reserve(
+            @Valid @ModelAttribute("reservationRequest") ReservationRequest reservationRequest,
+            BindingResult bindingResult) {
+
+        if (bindingResult.hasErrors()) {
+            return "redirect:/?reservation=invalid#reserve";
+        }
+
+        ReservationResponse response = reservationService.create(reservationRequest);
+
+        // Результат показывается на главной в секции бронирования
+        return switch (response.getOutcome()) {
+            case CONFIRMED -> "redirect:/?reservation=ok#reserve";
+            case SLOT_FULL -> "redirect:/?reservation=full#reserve";
+            case INVALID_SLOT, CANCELLED, NOT_FOUND -> "redirect:/?reservation=invalid#reserve";
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.terrace.dto.menu;
+
+import java.util.List;
+
+/**
+ * Неизменяемое представление категории меню в снимке MenuCatalog
+ */
+public record MenuCategoryView(String slug, String title, String description, List<MenuItemView> items) {
+
+    public MenuCategoryView {
+        items = List.copyOf(items);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.terrace.dto.menu;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemForm {
+
+    @NotBlank(message = "Category is required")
+    private String categorySlug;
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 150, message = "Name is too long")
+    private String name;
+
+    @Size(max = 1000, message = "Description is too long")
+    private String description;
+
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.00", message = "Price must not be negative")
+    @Digits(integer = 8, fraction = 2, message = "Invalid price")
+    private BigDecimal price;
+
+    private int sortOrder;
+
+    private boolean available = true;
+}
@@ -0,0 +1,10 @@
+package com.example.terrace.dto.menu;
+
+import java.math.BigDecimal;
+
+/**
+ * Неизменяемое представление позиции меню в снимке MenuCatalog
+ */
+public record MenuItemView(Long id, String name, String description, BigDecimal price,
+                           int sortOrder, boolean available) {
+}
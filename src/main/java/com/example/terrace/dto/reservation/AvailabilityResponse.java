@@ -0,0 +1,25 @@
+package com.example.terrace.dto.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponse {
+
+    private LocalDate date;
+    private List<SlotAvailability> slots;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SlotAvailability {
+        private String time;
+        private int remaining;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.terrace.dto.reservation;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name is too long")
+    private String name;
+
+    @NotBlank(message = "Phone is required")
+    @Size(max = 30, message = "Phone is too long")
+    private String phone;
+
+    @NotNull(message = "Date is required")
+    @FutureOrPresent(message = "Date must not be in the past")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate date;
+
+    @NotNull(message = "Time is required")
+    @DateTimeFormat(pattern = "HH:mm")
+    private LocalTime time;
+
+    @NotNull(message = "Guests is required")
+    @Min(value = 1, message = "At least one guest")
+    @Max(value = 10, message = "For more than 10 guests please call us")
+    private Integer guests;
+
+    @Size(max = 30)
+    private String occasion;
+
+    @Size(max = 1000)
+    private String requests;
+}
@@ -0,0 +1,25 @@
+package com.example.terrace.dto.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+
+    private Outcome outcome;
+    private String message;
+    private Long reservationId;
+    // Есть у принятых броней всегда, id - только после записи в БД (batched-режим)
+    private String reference;
+
+    public enum Outcome {
+        CONFIRMED,
+        SLOT_FULL,
+        INVALID_SLOT,
+        CANCELLED,
+        NOT_FOUND
+    }
+}
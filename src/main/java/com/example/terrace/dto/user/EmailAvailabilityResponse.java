@@ -0,0 +1,15 @@
+package com.example.terrace.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailAvailabilityResponse {
+
+    private String email;
+    private boolean valid;
+    private boolean available;
+}
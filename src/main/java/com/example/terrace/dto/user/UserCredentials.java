@@ -0,0 +1,10 @@
+package com.example.terrace.dto.user;
+
+import com.example.terrace.enums.UserRole;
+
+/**
+ * Поля пользователя, нужные для аутентификации.
+ * Все они лежат в индексе uk_users_email_lower, поэтому запрос идёт index-only scan
+ */
+public record UserCredentials(Long id, String email, String password, UserRole role) {
+}
@@ -0,0 +1,16 @@
+package com.example.terrace.enums;
+
+import lombok.Getter;
+
+// Статус бронирования столика
+@Getter
+public enum ReservationStatus {
+    CONFIRMED("Підтверджено"),
+    CANCELLED("Скасовано");
+
+    private final String displayName;
+
+    ReservationStatus(String displayName) {
+        this.displayName = displayName;
+    }
+}
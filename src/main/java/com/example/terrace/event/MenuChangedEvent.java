@@ -0,0 +1,7 @@
+package com.example.terrace.event;
+
+/**
+ * Публикуется после изменения меню в админке - снимок меню нужно пересобрать
+ */
+public record MenuChangedEvent() {
+}
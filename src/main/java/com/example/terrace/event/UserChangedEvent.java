@@ -0,0 +1,7 @@
+package com.example.terrace.event;
+
+/**
+ * Публикуется при изменении или удалении строки users (пароль, роль и т.п.)
+ */
+public record UserChangedEvent(String email) {
+}
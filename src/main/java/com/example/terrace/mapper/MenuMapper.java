@@ -0,0 +1,71 @@
+package com.example.terrace.mapper;
+
+import com.example.terrace.dto.menu.MenuCategoryView;
+import com.example.terrace.dto.menu.MenuItemForm;
+import com.example.terrace.dto.menu.MenuItemView;
+import com.example.terrace.model.MenuCategory;
+import com.example.terrace.model.MenuItem;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class MenuMapper {
+
+    /**
+     * Преобразует MenuItem entity в неизменяемое представление
+     */
+    public MenuItemView toView(MenuItem item) {
+        if (item == null) {
+            return null;
+        }
+
+        return new MenuItemView(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getPrice(),
+                item.getSortOrder(),
+                item.isAvailable()
+        );
+    }
+
+    /**
+     * Категория со списком позиций
+     */
+    public MenuCategoryView toView(MenuCategory category, List<MenuItemView> items) {
+        return new MenuCategoryView(
+                category.getSlug(),
+                category.getTitle(),
+                category.getDescription(),
+                items
+        );
+    }
+
+    /**
+     * Переносит данные формы в MenuItem (новый или существующий)
+     */
+    public void updateEntity(MenuItem item, MenuItemForm form, MenuCategory category) {
+        item.setCategory(category);
+        item.setName(form.getName().trim());
+        item.setDescription(form.getDescription() == null || form.getDescription().isBlank()
+                ? null : form.getDescription().trim());
+        item.setPrice(form.getPrice());
+        item.setSortOrder(form.getSortOrder());
+        item.setAvailable(form.isAvailable());
+    }
+
+    /**
+     * Заполняет форму редактирования из представления
+     */
+    public MenuItemForm toForm(String categorySlug, MenuItemView item) {
+        return new MenuItemForm(
+                categorySlug,
+                item.name(),
+                item.description(),
+                item.price(),
+                item.sortOrder(),
+                item.available()
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.terrace.mapper;
+
+import com.example.terrace.dto.reservation.AvailabilityResponse;
+import com.example.terrace.dto.reservation.ReservationRequest;
+import com.example.terrace.dto.reservation.ReservationResponse;
+import com.example.terrace.enums.ReservationStatus;
+import com.example.terrace.model.Reservation;
+import com.example.terrace.service.SlotCapacityIndex;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class ReservationMapper {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    /**
+     * Преобразует ReservationRequest в Reservation entity
+     */
+    public Reservation toEntity(ReservationRequest request) {
+        if (request == null) {
+            return null;
+        }
+
+        Reservation reservation = new Reservation();
+        reservation.setReference(UUID.randomUUID().toString());
+        reservation.setName(request.getName().trim());
+        reservation.setPhone(request.getPhone().trim());
+        reservation.setDate(request.getDate());
+        reservation.setTime(request.getTime());
+        reservation.setGuests(request.getGuests());
+        reservation.setOccasion(emptyToNull(request.getOccasion()));
+        reservation.setRequests(emptyToNull(request.getRequests()));
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+
+        return reservation;
+    }
+
+    /**
+     * Успешное бронирование
+     */
+    public ReservationResponse toConfirmedResponse(Reservation reservation) {
+        return new ReservationResponse(ReservationResponse.Outcome.CONFIRMED,
+                "Reservation confirmed", reservation.getId(), reservation.getReference());
+    }
+
+    /**
+     * Бронь принята в журнал (batched-режим): id будет присвоен при записи в БД,
+     * до этого бронь отменяется по reference
+     */
+    public ReservationResponse toAcceptedResponse(String reference) {
+        return new ReservationResponse(ReservationResponse.Outcome.CONFIRMED,
+                "Reservation confirmed", null, reference);
+    }
+
+    /**
+     * Отказ в бронировании
+     */
+    public ReservationResponse toRejectedResponse(ReservationResponse.Outcome outcome, String message) {
+        return new ReservationResponse(outcome, message, null, null);
+    }
+
+    /**
+     * Отмена бронирования
+     */
+    public ReservationResponse toCancelledResponse(Reservation reservation) {
+        return new ReservationResponse(ReservationResponse.Outcome.CANCELLED,
+                "Reservation cancelled", reservation.getId(), reservation.getReference());
+    }
+
+    /**
+     * Преобразует снимок доступности дня в ответ API
+     */
+    public AvailabilityResponse toAvailabilityResponse(SlotCapacityIndex.DayAvailability availability) {
+        List<LocalTime> slots = SlotCapacityIndex.slots();
+        List<AvailabilityResponse.SlotAvailability> result = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            result.add(new AvailabilityResponse.SlotAvailability(
+                    slots.get(i).format(TIME_FORMAT), availability.remaining()[i]));
+        }
+        return new AvailabilityResponse(availability.date(), result);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
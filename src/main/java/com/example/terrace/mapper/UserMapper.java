@@ -4,6 +4,7 @@ import com.example.terrace.dto.user.LoginResponse;
 import com.example.terrace.dto.user.RegisterRequest;
 import com.example.terrace.model.User;
 import com.example.terrace.enums.UserRole;
+import com.example.terrace.util.CustomUserDetails;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -24,6 +25,21 @@ public class UserMapper {
         );
     }
 
+    /**
+     * Преобразует аутентифицированный principal в UserInfo (без запроса в БД)
+     */
+    public LoginResponse.UserInfo toUserInfo(CustomUserDetails userDetails) {
+        if (userDetails == null) {
+            return null;
+        }
+
+        return new LoginResponse.UserInfo(
+                userDetails.getId(),
+                userDetails.getEmail(),
+                userDetails.getRole()
+        );
+    }
+
     /**
      * Создает полный LoginResponse с токеном и информацией о пользователе
      */
@@ -81,4 +97,11 @@ public class UserMapper {
     public LoginResponse toSuccessResponse(User user, String token) {
         return toLoginResponse(user, token, "Login successful");
     }
+
+    /**
+     * Создает успешный LoginResponse из аутентифицированного principal
+     */
+    public LoginResponse toSuccessResponse(CustomUserDetails userDetails, String token) {
+        return new LoginResponse("Login successful", token, toUserInfo(userDetails));
+    }
 }
\ No newline at end of file
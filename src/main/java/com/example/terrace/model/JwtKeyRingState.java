@@ -0,0 +1,30 @@
+package com.example.terrace.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Состояние связки ключей JWT (одна строка): когда включили ротацию.
+ * По этому моменту выводится ключ из jwt.secret
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "jwt_key_ring_state")
+public class JwtKeyRingState {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "rotation_enabled_at", nullable = false)
+    private Instant rotationEnabledAt;
+}
@@ -0,0 +1,45 @@
+package com.example.terrace.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Ключ подписи JWT из связки ключей (JwtKeyRing). Общий для всех узлов:
+ * любой узел проверяет токены, подписанные другим
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "jwt_signing_keys")
+public class JwtSigningKey {
+    // kid в заголовке токена
+    @Id
+    @Column(length = 36)
+    private String kid;
+
+    // HS256 | ES256
+    @Column(nullable = false, length = 10)
+    private String algorithm;
+
+    // Секрет HMAC или приватный ключ PKCS#8, зашифрованный jwt.keys.encryption-key (JwtKeyCipher)
+    @Column(name = "private_key", nullable = false, columnDefinition = "TEXT")
+    private String privateKey;
+
+    // Base64 X.509 для асимметричных алгоритмов (публикуется в JWKS)
+    @Column(name = "public_key", columnDefinition = "TEXT")
+    private String publicKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // С этого момента ключ подписывает; до него только опубликован для проверки (в т.ч. в JWKS)
+    @Column(name = "activates_at", nullable = false)
+    private Instant activatesAt;
+}
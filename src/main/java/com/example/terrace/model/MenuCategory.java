@@ -0,0 +1,32 @@
+package com.example.terrace.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "menu_categories")
+public class MenuCategory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Часть URL: /menu/{slug}
+    @Column(nullable = false, unique = true, length = 50)
+    private String slug;
+
+    @Column(nullable = false, length = 100)
+    private String title;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Column(name = "sort_order", nullable = false)
+    private int sortOrder;
+}
@@ -0,0 +1,62 @@
+package com.example.terrace.model;
+
+import com.example.terrace.enums.ReservationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_date_time", columnList = "reservation_date, reservation_time")
+})
+public class Reservation {
+    // Sequence + pooled optimizer: id выдаются без round-trip, INSERT-ы батчатся
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+    @SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_seq", allocationSize = 50)
+    private Long id;
+
+    // Идентификатор брони из журнала приёма - делает повторную запись идемпотентной
+    @Column(nullable = false, unique = true, length = 36, updatable = false)
+    private String reference;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(nullable = false, length = 30)
+    private String phone;
+
+    @Column(name = "reservation_date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "reservation_time", nullable = false)
+    private LocalTime time;
+
+    @Column(nullable = false)
+    private int guests;
+
+    @Column(length = 30)
+    private String occasion;
+
+    @Column(length = 1000)
+    private String requests;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status = ReservationStatus.CONFIRMED;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,46 @@
+package com.example.terrace.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Строка-счётчик занятых мест на один слот (дата + время).
+ * Блокируется SELECT ... FOR UPDATE при каждом бронировании.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "reservation_slots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reservation_slots_date_time", columnNames = {"slot_date", "slot_time"})
+})
+public class ReservationSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "slot_date", nullable = false)
+    private LocalDate slotDate;
+
+    @Column(name = "slot_time", nullable = false)
+    private LocalTime slotTime;
+
+    // Вместимость слота в гостях
+    @Column(nullable = false)
+    private int capacity;
+
+    // Уже забронировано гостей
+    @Column(nullable = false)
+    private int booked;
+
+    public int getRemaining() {
+        return capacity - booked;
+    }
+}
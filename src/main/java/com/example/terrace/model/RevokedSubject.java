@@ -0,0 +1,29 @@
+package com.example.terrace.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Отзыв всех токенов пользователя: выпущенные раньше revokedBefore недействительны.
+ * Строка нужна, пока живут такие токены; в памяти список держит TokenRevocationService
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "revoked_subjects", indexes = {
+        @Index(name = "idx_revoked_subjects_revoked_before", columnList = "revoked_before")
+})
+public class RevokedSubject {
+    @Id
+    private String subject;
+
+    @Column(name = "revoked_before", nullable = false)
+    private Instant revokedBefore;
+}
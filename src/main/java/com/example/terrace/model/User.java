@@ -17,12 +17,14 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Table(name = "users")
+@EntityListeners(UserEntityListener.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    // Уникальность без учёта регистра - индекс uk_users_email_lower (V2__auth_indexes.sql)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -0,0 +1,23 @@
+package com.example.terrace.model;
+
+import com.example.terrace.event.UserChangedEvent;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA listener для User: сообщает о смене пароля/роли, чтобы сбросить кэши.
+ * Создаётся Hibernate через SpringBeanContainer, поэтому зависимости внедряются.
+ */
+@RequiredArgsConstructor
+public class UserEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getEmail()));
+    }
+}
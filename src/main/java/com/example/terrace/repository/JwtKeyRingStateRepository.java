@@ -0,0 +1,21 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.model.JwtKeyRingState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface JwtKeyRingStateRepository extends JpaRepository<JwtKeyRingState, Integer> {
+
+    // Первый узел с включённой ротацией фиксирует момент; остальные его не перезаписывают
+    @Modifying
+    @Query(value = "INSERT INTO jwt_key_ring_state (id, rotation_enabled_at) VALUES (1, :now) " +
+            "ON CONFLICT (id) DO NOTHING",
+            nativeQuery = true)
+    int markRotationEnabled(@Param("now") Instant now);
+}
@@ -0,0 +1,14 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.model.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    // Порядок одинаковый на всех узлах: при равном activatesAt решает kid
+    List<JwtSigningKey> findAllByOrderByActivatesAtDescKidDesc();
+}
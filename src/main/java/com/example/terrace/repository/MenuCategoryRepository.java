@@ -0,0 +1,16 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.model.MenuCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MenuCategoryRepository extends JpaRepository<MenuCategory, Long> {
+
+    Optional<MenuCategory> findBySlug(String slug);
+
+    List<MenuCategory> findAllByOrderBySortOrderAsc();
+}
@@ -0,0 +1,16 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.model.MenuItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
+
+    // Все позиции с категориями одним запросом - для сборки снимка меню
+    @Query("select i from MenuItem i join fetch i.category order by i.sortOrder, i.id")
+    List<MenuItem> findAllWithCategory();
+}
@@ -0,0 +1,20 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.model.MenuVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MenuVersionRepository extends JpaRepository<MenuVersion, Integer> {
+
+    // Вызывается в транзакции правки меню: версия видна другим узлам вместе с самой правкой
+    @Modifying
+    @Query(value = "UPDATE menu_version SET version = version + 1 WHERE id = 1", nativeQuery = true)
+    int increment();
+
+    // Дешёвая проверка по первичному ключу, без загрузки сущности в контекст
+    @Query(value = "SELECT version FROM menu_version WHERE id = 1", nativeQuery = true)
+    long current();
+}
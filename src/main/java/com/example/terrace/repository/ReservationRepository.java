@@ -0,0 +1,20 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.model.Reservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    @Query("select r.reference from Reservation r where r.reference in :references")
+    Set<String> findExistingReferences(@Param("references") Collection<String> references);
+
+    Optional<Reservation> findByReference(String reference);
+}
@@ -0,0 +1,36 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.model.ReservationSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReservationSlotRepository extends JpaRepository<ReservationSlot, Long> {
+
+    Optional<ReservationSlot> findBySlotDateAndSlotTime(LocalDate slotDate, LocalTime slotTime);
+
+    // Все слоты дня (не больше 23 строк по уникальному ключу)
+    List<ReservationSlot> findBySlotDate(LocalDate slotDate);
+
+    // SELECT ... FOR UPDATE по одной строке слота
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ReservationSlot s where s.slotDate = :date and s.slotTime = :time")
+    Optional<ReservationSlot> findForUpdate(@Param("date") LocalDate date, @Param("time") LocalTime time);
+
+    // Создаёт строку слота, если её ещё нет (гонку разрешает уникальный ключ)
+    @Modifying
+    @Query(value = "INSERT INTO reservation_slots (slot_date, slot_time, capacity, booked) " +
+            "VALUES (:date, :time, :capacity, 0) " +
+            "ON CONFLICT (slot_date, slot_time) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("date") LocalDate date, @Param("time") LocalTime time, @Param("capacity") int capacity);
+}
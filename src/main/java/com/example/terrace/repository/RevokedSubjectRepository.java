@@ -0,0 +1,33 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.model.RevokedSubject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedSubjectRepository extends JpaRepository<RevokedSubject, String> {
+
+    // Отзывы, сделанные после момента since (загрузка при старте и подтягивание с других узлов)
+    @Query("select s from RevokedSubject s where s.revokedBefore >= :since")
+    List<RevokedSubject> findRevokedSince(@Param("since") Instant since);
+
+    // Момент отзыва только сдвигается вперёд, даже если узлы пишут не по порядку
+    @Modifying
+    @Query(value = "INSERT INTO revoked_subjects (subject, revoked_before) " +
+            "VALUES (:subject, :revokedBefore) " +
+            "ON CONFLICT (subject) DO UPDATE " +
+            "SET revoked_before = GREATEST(revoked_subjects.revoked_before, EXCLUDED.revoked_before)",
+            nativeQuery = true)
+    int upsert(@Param("subject") String subject, @Param("revokedBefore") Instant revokedBefore);
+
+    // Отзыв старше срока жизни токена ничего не закрывает
+    @Modifying
+    @Query("delete from RevokedSubject s where s.revokedBefore <= :before")
+    int deleteRevokedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,37 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Все ещё действующие отзывы - загрузка при старте
+    @Query("select t from RevokedToken t where t.expiresAt > :now")
+    List<RevokedToken> findActive(@Param("now") Instant now);
+
+    // Отзывы, сделанные после момента since (в т.ч. другими узлами)
+    @Query("select t from RevokedToken t where t.revokedAt >= :since and t.expiresAt > :now")
+    List<RevokedToken> findActiveRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    // Повторный logout с тем же токеном не ошибка
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (jti, subject, expires_at, revoked_at) " +
+            "VALUES (:jti, :subject, :expiresAt, :revokedAt) " +
+            "ON CONFLICT (jti) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti,
+                       @Param("subject") String subject,
+                       @Param("expiresAt") Instant expiresAt,
+                       @Param("revokedAt") Instant revokedAt);
+
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,16 +1,50 @@
 package com.example.terrace.repository;
 
+import com.example.terrace.dto.user.UserCredentials;
 import com.example.terrace.model.User;
-import jakarta.validation.constraints.Email;
-import jakarta.validation.constraints.NotBlank;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.stream.Stream;
+
+// Email сравнивается без учёта регистра: условие lower(email) совпадает с индексом uk_users_email_lower
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
 
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    Optional<User> findByEmail(@Param("email") String email);
+
+    @Query("select new com.example.terrace.dto.user.UserCredentials(u.id, u.email, u.password, u.role) " +
+            "from User u where lower(u.email) = lower(:email)")
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
+    @Query("select count(u) > 0 from User u where lower(u.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
+
+    // Перехэширование при логине: запрос мимо UserEntityListener - это не смена пароля,
+    // токены пользователя не отзываются
+    @Modifying
+    @Query("update User u set u.password = :password, u.updatedAt = local datetime where lower(u.email) = lower(:email)")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+
+    // Все email потоком (курсор с fetch size) - наполнение EmailAvailabilityFilter
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select u.email from User u")
+    Stream<String> streamAllEmails();
 
-    boolean existsByEmail(@NotBlank(message = "Email is required") @Email(message = "Email should be valid") String email);
+    // Регистрация одним запросом: пустой результат - email уже занят (в т.ч. параллельной регистрацией)
+    @Transactional
+    @Query(value = "INSERT INTO users (email, password, role, created_at, updated_at) " +
+            "VALUES (:email, :password, :role, now(), now()) " +
+            "ON CONFLICT (lower(email)) DO NOTHING RETURNING id", nativeQuery = true)
+    Optional<Long> insertIfEmailAvailable(@Param("email") String email,
+                                          @Param("password") String password,
+                                          @Param("role") String role);
 }
@@ -4,16 +4,21 @@ package com.example.terrace.service;
 import com.example.terrace.dto.user.LoginRequest;
 import com.example.terrace.dto.user.LoginResponse;
 import com.example.terrace.mapper.UserMapper;
-import com.example.terrace.model.User;
-import com.example.terrace.repository.UserRepository;
+import com.example.terrace.util.AuthMetrics;
+import com.example.terrace.util.CustomUserDetails;
+import com.example.terrace.util.CustomUserDetailsService;
+import com.example.terrace.util.HashingCapacityExceededException;
 import com.example.terrace.util.JwtUtil;
+import com.example.terrace.util.JwtValidationResult;
+import com.example.terrace.util.TokenRevocationService;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -21,15 +26,20 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AuthService {
 
-    private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
     private final UserMapper userMapper;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final AuthMetrics authMetrics;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * Аутентификация пользователя
      */
     public LoginResponse login(LoginRequest loginRequest) {
+        // Общее время логина; поиск пользователя, хэш и выпуск токена - в auth.user.*, auth.password.*, auth.jwt.*
+        Timer.Sample sample = authMetrics.start();
+        String outcome = AuthMetrics.ERROR;
         try {
             // Аутентификация через Spring Security
             Authentication authentication = authenticationManager.authenticate(
@@ -39,25 +49,51 @@ public class AuthService {
                     )
             );
 
-            // Получаем пользователя из БД
-            User user = userRepository.findByEmail(loginRequest.getEmail())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            // Генерируем JWT токен
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            // Principal уже содержит id и роль - повторный запрос в БД не нужен
+            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
             String token = jwtUtil.generateToken(userDetails);
 
-            log.info("User logged in successfully: {}", user.getEmail());
+            log.info("User logged in successfully: {}", userDetails.getEmail());
+            outcome = AuthMetrics.SUCCESS;
 
             // Используем маппер для создания ответа
-            return userMapper.toSuccessResponse(user, token);
+            return userMapper.toSuccessResponse(userDetails, token);
 
         } catch (BadCredentialsException e) {
             log.warn("Failed login attempt for user: {}", loginRequest.getEmail());
+            outcome = AuthMetrics.BAD_CREDENTIALS;
             return userMapper.toErrorResponse("Invalid email or password");
+        } catch (HashingCapacityExceededException e) {
+            // Пул хэширования перегружен - отдаём 503 через GlobalExceptionHandler
+            outcome = AuthMetrics.OVERLOADED;
+            throw e;
+        } catch (InternalAuthenticationServiceException e) {
+            // DaoAuthenticationProvider оборачивает ошибки, возникшие при поиске пользователя
+            if (e.getCause() instanceof HashingCapacityExceededException capacityExceeded) {
+                outcome = AuthMetrics.OVERLOADED;
+                throw capacityExceeded;
+            }
+            log.error("Login failed for user: {}", loginRequest.getEmail(), e);
+            return userMapper.toErrorResponse("Login failed");
         } catch (Exception e) {
             log.error("Login failed for user: {}", loginRequest.getEmail(), e);
             return userMapper.toErrorResponse("Login failed");
+        } finally {
+            authMetrics.stop(sample, "auth.login", "outcome", outcome);
+        }
+    }
+
+    /**
+     * Выход: токен отзывается, а не только удаляется cookie
+     */
+    public void logout(String token) {
+        try {
+            // Просроченный или битый токен и так не пройдёт проверку
+            if (jwtUtil.validate(token) instanceof JwtValidationResult.Valid valid) {
+                tokenRevocationService.revoke(valid.claims());
+            }
+        } catch (Exception e) {
+            log.warn("Token not revoked on logout: {}", e.getMessage());
         }
     }
 
@@ -79,10 +115,9 @@ public class AuthService {
     public LoginResponse.UserInfo getUserInfoFromToken(String token) {
         try {
             String email = jwtUtil.extractUsername(token);
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            CustomUserDetails userDetails = userDetailsService.loadUserByUsername(email);
 
-            return userMapper.toUserInfo(user);
+            return userMapper.toUserInfo(userDetails);
         } catch (Exception e) {
             log.error("Failed to get user info from token: {}", e.getMessage());
             return null;
@@ -99,14 +134,13 @@ public class AuthService {
             }
 
             String email = jwtUtil.extractUsername(oldToken);
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            CustomUserDetails userDetails = userDetailsService.loadUserByUsername(email);
 
             // Создаем новый токен
             String newToken = jwtUtil.refreshToken(oldToken);
 
             if (newToken != null) {
-                return userMapper.toSuccessResponse(user, newToken);
+                return userMapper.toSuccessResponse(userDetails, newToken);
             } else {
                 return userMapper.toErrorResponse("Failed to refresh token");
             }
@@ -0,0 +1,171 @@
+package com.example.terrace.service;
+
+import com.example.terrace.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom-фильтр по email всех пользователей. "Точно нет" - email свободен без запроса в БД,
+ * "возможно есть" - проверка через existsByEmail. Наполняется потоком из users при старте
+ * и периодически пересобирается (регистрации на других узлах), новые email добавляются сразу.
+ */
+@Slf4j
+@Service
+public class EmailAvailabilityFilter {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    // null, пока фильтр не наполнен - тогда все ответы "возможно есть"
+    private volatile BloomFilter filter;
+
+    // Фильтр, который сейчас наполняется: регистрации во время пересборки пишутся и в него
+    private volatile BloomFilter building;
+
+    public EmailAvailabilityFilter(UserRepository userRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${email-filter.expected-insertions:1000000}") long expectedInsertions,
+                                   @Value("${email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread.ofVirtual().name("email-filter-warmup").start(this::rebuild);
+    }
+
+    /**
+     * Полная пересборка: новый фильтр наполняется отдельно и подменяет старый
+     */
+    @Scheduled(initialDelayString = "${email-filter.rebuild-interval-ms:600000}",
+            fixedDelayString = "${email-filter.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(expectedInsertions, falsePositiveRate);
+        building = rebuilt;
+        try {
+            Long count = readOnlyTransaction.execute(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    return emails.mapToLong(email -> {
+                        rebuilt.add(normalize(email));
+                        return 1;
+                    }).sum();
+                }
+            });
+            filter = rebuilt;
+            if (count != null && count > expectedInsertions) {
+                log.warn("Email availability filter holds {} users, above expected {}: false positives will grow",
+                        count, expectedInsertions);
+            }
+            log.info("Email availability filter built from {} users", count);
+        } catch (RuntimeException e) {
+            log.warn("Email availability filter rebuild failed: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Вызывается после коммита регистрации
+     */
+    public void add(String email) {
+        String normalized = normalize(email);
+        BloomFilter pending = building;
+        if (pending != null) {
+            pending.add(normalized);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(normalized);
+        }
+    }
+
+    public boolean mightContain(String email) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(normalize(email));
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Битовый массив на AtomicLongArray: add и mightContain без блокировок.
+     * Позиции - двойное хэширование h1 + i*h2 по 64-битному FNV-1a с перемешиванием
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+            this.bits = new AtomicLongArray(Math.toIntExact(bitCount / 64));
+        }
+
+        void add(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                while (((current = bits.get(word)) & mask) == 0) {
+                    if (bits.compareAndSet(word, current, current | mask)) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            // Финальное перемешивание (murmur3 fmix64) - FNV слабо меняет старшие биты
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.terrace.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Сборка вариантов картинок при сборке (exec:java в process-classes, см. pom.xml).
+ * Оригиналы из sources.properties - файлы рядом с ним (в репозитории) или URL, которые
+ * скачиваются один раз в кэш сборки. Недоступный оригинал валит сборку: картинка без
+ * вариантов не должна молча уехать в артефакт. Варианты по ширинам в JPEG и WebP пишутся
+ * в target/classes/media вместе с индексом variants.properties.
+ * Приложение во время работы только отдаёт готовые файлы (ImageVariantService).
+ * Аргументы: sources.properties, каталог кэша оригиналов, каталог классов, ширины через запятую, качество.
+ */
+@Slf4j
+public final class ImageVariantGenerator {
+
+    public static final String MEDIA_DIR = "media";
+    public static final String INDEX_FILE = "variants.properties";
+    public static final String JPEG = "jpg";
+    public static final String WEBP = "webp";
+
+    private ImageVariantGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            throw new IllegalArgumentException(
+                    "Usage: ImageVariantGenerator <sources.properties> <cache-dir> <classes-dir> <widths> <quality>");
+        }
+        System.setProperty("java.awt.headless", "true");
+        // exec:java запускает в общем JVM Maven - плагины ImageIO ищем в classpath проекта
+        ImageIO.scanForPlugins();
+
+        Path sourcesFile = Path.of(args[0]);
+        Properties sources = new Properties();
+        try (Reader reader = Files.newBufferedReader(sourcesFile, StandardCharsets.UTF_8)) {
+            sources.load(reader);
+        }
+        Path cacheDir = Path.of(args[1]);
+        Path mediaDir = Path.of(args[2]).resolve(MEDIA_DIR);
+        List<Integer> widths = Arrays.stream(args[3].split(",")).map(String::trim).map(Integer::valueOf).toList();
+        float quality = Float.parseFloat(args[4]);
+
+        List<String> formats = new ArrayList<>(List.of(JPEG));
+        if (ImageIO.getImageWritersByFormatName(WEBP).hasNext()) {
+            formats.add(WEBP);
+        } else {
+            log.warn("No ImageIO writer for WebP, generating JPEG variants only");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        // TreeMap - стабильный порядок индекса между сборками
+        Map<String, String> index = new TreeMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : new TreeMap<>(sources).keySet().stream().map(Object::toString).toList()) {
+            String location = sources.getProperty(name).trim();
+            Path original;
+            if (location.startsWith("http://") || location.startsWith("https://")) {
+                try {
+                    original = fetch(client, name, location, cacheDir);
+                } catch (IOException e) {
+                    log.error("Image '{}' not fetched from {}: {}", name, location, e.toString());
+                    missing.add(name);
+                    continue;
+                }
+            } else {
+                original = sourcesFile.toAbsolutePath().getParent().resolve(location);
+                if (!Files.isRegularFile(original)) {
+                    log.error("Image '{}': no original at {}", name, original);
+                    missing.add(name);
+                    continue;
+                }
+            }
+            BufferedImage source = null;
+            for (int width : widths) {
+                for (String format : formats) {
+                    Path target = mediaDir.resolve(name).resolve(width + "." + format);
+                    if (!Files.exists(target)
+                            || Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(original)) < 0) {
+                        if (source == null) {
+                            source = read(original);
+                        }
+                        write(scale(source, width), target, format, quality);
+                    }
+                    index.put(name + "/" + width + "." + format, etag(target) + " " + Files.size(target));
+                }
+            }
+            log.info("Image '{}': {} variants", name, widths.size() * formats.size());
+        }
+        if (!missing.isEmpty()) {
+            throw new IOException("Image originals not available: " + missing
+                    + " (commit them next to " + sourcesFile.getFileName() + " or build with network access)");
+        }
+
+        Files.createDirectories(mediaDir);
+        List<String> lines = new ArrayList<>();
+        lines.add("# Сгенерировано ImageVariantGenerator: имя/ширина.формат=ETag размер");
+        index.forEach((key, value) -> lines.add(key + "=" + value));
+        Files.write(mediaDir.resolve(INDEX_FILE), lines, StandardCharsets.UTF_8);
+    }
+
+    // Оригинал в кэше по имени и хэшу URL: смена URL скачивает заново, повторная сборка - нет
+    private static Path fetch(HttpClient client, String name, String url, Path cacheDir) throws IOException {
+        Path cached = cacheDir.resolve(name + "-" + sha256(url.getBytes(StandardCharsets.UTF_8)).substring(0, 12));
+        if (Files.exists(cached)) {
+            return cached;
+        }
+        Files.createDirectories(cacheDir);
+        Path tmp = Files.createTempFile(cacheDir, name, ".tmp");
+        try {
+            HttpResponse<Path> response = client.send(
+                    HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).GET().build(),
+                    HttpResponse.BodyHandlers.ofFile(tmp));
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+            Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Image '{}' fetched ({} bytes)", name, Files.size(cached));
+            return cached;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching image " + name, e);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static BufferedImage read(Path original) throws IOException {
+        BufferedImage image = ImageIO.read(original.toFile());
+        if (image == null) {
+            throw new IOException("Unsupported image format: " + original.getFileName());
+        }
+        return image;
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width) {
+        // Не увеличиваем меньше оригинала
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round(source.getHeight() * (targetWidth / (float) source.getWidth())));
+
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static void write(BufferedImage image, Path target, String format, float quality) throws IOException {
+        String formatName = JPEG.equals(format) ? "jpeg" : format;
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
+        if (!writers.hasNext()) {
+            throw new IOException("No ImageIO writer for " + formatName);
+        }
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes().length > 0) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Строгий ETag по содержимому файла варианта
+    private static String etag(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
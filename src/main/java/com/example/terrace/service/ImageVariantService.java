@@ -0,0 +1,138 @@
+package com.example.terrace.service;
+
+import com.example.terrace.config.ImageProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Локальные картинки вместо hot-link на Unsplash. Варианты по ширинам в JPEG и WebP
+ * собираются при сборке (ImageVariantGenerator) и лежат в classpath:media/ с индексом.
+ * При старте они копируются в images.store-dir под именем по ETag, чтобы отдавать
+ * их файлом (sendfile). Во время работы нет ни скачивания, ни ресайза.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageVariantService {
+
+    public static final String JPEG = ImageVariantGenerator.JPEG;
+    public static final String WEBP = ImageVariantGenerator.WEBP;
+
+    private static final String MEDIA_LOCATION = "classpath:" + ImageVariantGenerator.MEDIA_DIR + "/";
+
+    private final ImageProperties properties;
+    private final ResourceLoader resourceLoader;
+
+    // "hero/800.webp" -> вариант
+    private Map<String, Variant> variants = Map.of();
+
+    @PostConstruct
+    void load() {
+        Resource indexResource = resourceLoader.getResource(MEDIA_LOCATION + ImageVariantGenerator.INDEX_FILE);
+        if (!indexResource.exists()) {
+            // Иначе /media/** отвечал бы 404 на каждую картинку главной
+            throw new IllegalStateException(
+                    "No image variants on the classpath - build with mvn process-classes to generate them");
+        }
+
+        Properties index = new Properties();
+        try (Reader reader = new InputStreamReader(indexResource.getInputStream(), StandardCharsets.UTF_8)) {
+            index.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read image variant index", e);
+        }
+
+        Map<String, Variant> loaded = new HashMap<>();
+        for (String key : index.stringPropertyNames()) {
+            String[] etagAndSize = index.getProperty(key).split(" ");
+            String format = key.substring(key.lastIndexOf('.') + 1);
+            Path file = extract(key, etagAndSize[0], format);
+            loaded.put(key, new Variant(file, Long.parseLong(etagAndSize[1]), etagAndSize[0], contentType(format)));
+        }
+        variants = Map.copyOf(loaded);
+        log.info("Image variants ready: {}", variants.size());
+    }
+
+    /**
+     * Есть ли у картинки варианты в этом формате (для &lt;source type="image/webp"&gt;)
+     */
+    public boolean hasVariants(String name, String format) {
+        return !widths(name, format).isEmpty();
+    }
+
+    /**
+     * srcset для шаблонов: "/media/hero/480.jpg 480w, /media/hero/800.jpg 800w, ..."
+     */
+    public String srcset(String name, String format) {
+        return widths(name, format).stream()
+                .map(width -> "/media/" + name + "/" + width + "." + format + " " + width + "w")
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Готовый вариант картинки; пусто, если такого варианта не собрано
+     */
+    public Optional<Variant> getVariant(String name, int width, String format) {
+        return Optional.ofNullable(variants.get(name + "/" + width + "." + format));
+    }
+
+    private List<Integer> widths(String name, String format) {
+        String prefix = name + "/";
+        String suffix = "." + format;
+        TreeMap<Integer, String> widths = new TreeMap<>();
+        for (String key : variants.keySet()) {
+            if (key.startsWith(prefix) && key.endsWith(suffix)) {
+                String width = key.substring(prefix.length(), key.length() - suffix.length());
+                widths.put(Integer.parseInt(width), key);
+            }
+        }
+        return List.copyOf(widths.keySet());
+    }
+
+    // Имя файла по ETag: содержимое с таким именем не меняется, повторный старт ничего не копирует
+    private Path extract(String key, String etag, String format) {
+        Path target = Paths.get(properties.getStoreDir()).resolve("variants")
+                .resolve(etag.replace("\"", "") + "." + format);
+        if (Files.exists(target)) {
+            return target;
+        }
+        try (InputStream in = resourceLoader.getResource(MEDIA_LOCATION + key).getInputStream()) {
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), etag.replace("\"", ""), ".tmp");
+            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extract image variant " + key, e);
+        }
+    }
+
+    private static String contentType(String format) {
+        return JPEG.equals(format) ? "image/jpeg" : "image/" + format;
+    }
+
+    public record Variant(Path path, long size, String etag, String contentType) {
+    }
+}
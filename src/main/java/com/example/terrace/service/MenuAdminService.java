@@ -0,0 +1,67 @@
+package com.example.terrace.service;
+
+import com.example.terrace.dto.menu.MenuItemForm;
+import com.example.terrace.event.MenuChangedEvent;
+import com.example.terrace.mapper.MenuMapper;
+import com.example.terrace.model.MenuCategory;
+import com.example.terrace.model.MenuItem;
+import com.example.terrace.repository.MenuCategoryRepository;
+import com.example.terrace.repository.MenuItemRepository;
+import com.example.terrace.repository.MenuVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Правка меню из /admin/menu. После коммита MenuCatalog пересобирает снимок;
+ * версия в menu_version растёт в той же транзакции - по ней снимок пересобирают другие узлы.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MenuAdminService {
+
+    private final MenuCategoryRepository categoryRepository;
+    private final MenuItemRepository itemRepository;
+    private final MenuVersionRepository versionRepository;
+    private final MenuMapper menuMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public void createItem(MenuItemForm form) {
+        MenuItem item = new MenuItem();
+        menuMapper.updateEntity(item, form, findCategory(form.getCategorySlug()));
+        itemRepository.save(item);
+
+        log.info("Menu item created: {}", item.getName());
+        versionRepository.increment();
+        eventPublisher.publishEvent(new MenuChangedEvent());
+    }
+
+    @Transactional
+    public void updateItem(Long id, MenuItemForm form) {
+        MenuItem item = itemRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Menu item not found: " + id));
+        menuMapper.updateEntity(item, form, findCategory(form.getCategorySlug()));
+
+        log.info("Menu item updated: {}", id);
+        versionRepository.increment();
+        eventPublisher.publishEvent(new MenuChangedEvent());
+    }
+
+    @Transactional
+    public void deleteItem(Long id) {
+        itemRepository.deleteById(id);
+
+        log.info("Menu item deleted: {}", id);
+        versionRepository.increment();
+        eventPublisher.publishEvent(new MenuChangedEvent());
+    }
+
+    private MenuCategory findCategory(String slug) {
+        return categoryRepository.findBySlug(slug)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown menu category: " + slug));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.terrace.service;
+
+import com.example.terrace.dto.menu.MenuCategoryView;
+import com.example.terrace.dto.menu.MenuItemView;
+import com.example.terrace.event.MenuChangedEvent;
+import com.example.terrace.mapper.MenuMapper;
+import com.example.terrace.model.MenuCategory;
+import com.example.terrace.model.MenuItem;
+import com.example.terrace.repository.MenuCategoryRepository;
+import com.example.terrace.repository.MenuItemRepository;
+import com.example.terrace.repository.MenuVersionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Меню для публичных страниц /menu/**: неизменяемый снимок в памяти.
+ * Чтение - одно volatile-чтение без обращения к БД; при правке меню в
+ * админке снимок целиком пересобирается и атомарно подменяется. Правки с других
+ * узлов замечаются по версии в menu_version (checkVersion по расписанию).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MenuCatalog {
+
+    // Категории, на которые ссылается главная страница
+    private static final List<MenuCategory> DEFAULT_CATEGORIES = List.of(
+            new MenuCategory(null, "breakfast", "Сніданки", "Ранкове меню", 1),
+            new MenuCategory(null, "lunch", "Обіди", "Денне меню", 2),
+            new MenuCategory(null, "dinner", "Вечеря", "Вечірнє меню", 3),
+            new MenuCategory(null, "shisha", "Кальян", "Кальянна карта", 4)
+    );
+
+    private final MenuCategoryRepository categoryRepository;
+    private final MenuItemRepository itemRepository;
+    private final MenuVersionRepository versionRepository;
+    private final MenuMapper menuMapper;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), List.of(), 0, -1);
+
+    @PostConstruct
+    void init() {
+        createMissingCategories();
+        rebuild();
+    }
+
+    public Optional<MenuCategoryView> findCategory(String slug) {
+        return Optional.ofNullable(snapshot.bySlug().get(slug));
+    }
+
+    public List<MenuCategoryView> getCategories() {
+        return snapshot.categories();
+    }
+
+    /**
+     * Версия снимка - растёт при каждой пересборке
+     */
+    public long getVersion() {
+        return snapshot.version();
+    }
+
+    /**
+     * Пересборка после коммита изменений меню
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Правка на другом узле: версия в menu_version ушла вперёд снимка - пересобираем.
+     * Обычно это один запрос по первичному ключу
+     */
+    @Scheduled(initialDelayString = "${menu.catalog.version-check-interval-ms:5000}",
+            fixedDelayString = "${menu.catalog.version-check-interval-ms:5000}")
+    public void checkVersion() {
+        if (versionRepository.current() != snapshot.sourceVersion()) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        // Версия читается до данных: правка, закоммиченная во время сборки, даст ещё одну пересборку
+        long sourceVersion = versionRepository.current();
+        List<MenuCategory> categories = categoryRepository.findAllByOrderBySortOrderAsc();
+
+        Map<Long, List<MenuItemView>> itemsByCategory = new HashMap<>();
+        for (MenuItem item : itemRepository.findAllWithCategory()) {
+            itemsByCategory.computeIfAbsent(item.getCategory().getId(), id -> new ArrayList<>())
+                    .add(menuMapper.toView(item));
+        }
+
+        Map<String, MenuCategoryView> bySlug = new LinkedHashMap<>();
+        for (MenuCategory category : categories) {
+            bySlug.put(category.getSlug(),
+                    menuMapper.toView(category, itemsByCategory.getOrDefault(category.getId(), List.of())));
+        }
+
+        snapshot = new Snapshot(
+                Map.copyOf(bySlug),
+                List.copyOf(bySlug.values()),
+                snapshot.version() + 1,
+                sourceVersion
+        );
+        log.info("Menu snapshot rebuilt: {} categories, version {} (menu_version {})",
+                bySlug.size(), snapshot.version(), sourceVersion);
+    }
+
+    private void createMissingCategories() {
+        for (MenuCategory category : DEFAULT_CATEGORIES) {
+            if (categoryRepository.findBySlug(category.getSlug()).isEmpty()) {
+                categoryRepository.save(new MenuCategory(null, category.getSlug(), category.getTitle(),
+                        category.getDescription(), category.getSortOrder()));
+            }
+        }
+    }
+
+    // sourceVersion - значение menu_version, из которого собран снимок
+    private record Snapshot(Map<String, MenuCategoryView> bySlug, List<MenuCategoryView> categories, long version,
+                            long sourceVersion) {
+    }
+}
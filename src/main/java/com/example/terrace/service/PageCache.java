@@ -0,0 +1,91 @@
+package com.example.terrace.service;
+
+import com.example.terrace.event.MenuChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кэш готовых HTML-ответов для анонимных страниц (/, /home, /menu/**).
+ * Запись хранит исходные и заранее сжатые gzip байты, ETag и версию контента;
+ * запись с устаревшей версией не отдаётся. Версия меню - версия снимка MenuCatalog,
+ * поэтому правка с другого узла снимает /menu/** вместе с пересборкой снимка.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PageCache {
+
+    private final MenuCatalog menuCatalog;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Версия контента страницы: меню зависит от снимка MenuCatalog, остальные страницы статичны
+     */
+    public long contentVersion(String path) {
+        return path.startsWith("/menu") ? menuCatalog.getVersion() : 0;
+    }
+
+    public Entry get(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null || entry.version() != contentVersion(path)) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Сохраняет отрендеренную страницу; version берётся до рендера, чтобы
+     * страница, собранная из старого снимка, не прошла проверку версии
+     */
+    public Entry put(String path, long version, String contentType, byte[] body) {
+        Entry entry = new Entry(version, contentType, body, gzip(body), etag(body));
+        entries.put(path, entry);
+        return entry;
+    }
+
+    // Освобождает память сразу на узле правки; корректность держит проверка версии в get()
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        entries.keySet().removeIf(path -> path.startsWith("/menu"));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+        log.info("Page cache cleared");
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record Entry(long version, String contentType, byte[] body, byte[] gzipBody, String etag) {
+    }
+}
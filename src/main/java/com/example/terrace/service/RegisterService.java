@@ -9,11 +9,16 @@ import com.example.terrace.dto.user.LoginResponse;
 import com.example.terrace.mapper.UserMapper;
 import com.example.terrace.model.User;
 import com.example.terrace.repository.UserRepository;
+import com.example.terrace.util.AuthMetrics;
+import com.example.terrace.util.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -22,19 +27,25 @@ public class RegisterService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final AuthMetrics authMetrics;
+    private final EmailAvailabilityFilter emailAvailabilityFilter;
 
     /**
      * Регистрация нового пользователя
      */
     public LoginResponse register(RegisterRequest registerRequest) {
+        Timer.Sample sample = authMetrics.start();
+        String outcome = AuthMetrics.ERROR;
         try {
             // Проверяем совпадение паролей
             if (!registerRequest.getPassword().equals(registerRequest.getConfirmPassword())) {
+                outcome = AuthMetrics.PASSWORD_MISMATCH;
                 return userMapper.toErrorResponse("Passwords do not match");
             }
 
-            // Проверяем существование пользователя
-            if (userRepository.existsByEmail(registerRequest.getEmail())) {
+            // Заведомо занятый email отсекаем до хэширования; новые email в БД здесь не идут
+            if (!isEmailAvailable(registerRequest.getEmail())) {
+                outcome = AuthMetrics.EMAIL_TAKEN;
                 return userMapper.toErrorResponse("Email already exists");
             }
 
@@ -44,28 +55,46 @@ public class RegisterService {
             // Создаем пользователя через маппер
             User user = userMapper.toEntity(registerRequest, encodedPassword);
 
-            // Сохраняем в БД
-            User savedUser = userRepository.save(user);
+            // Проверка занятости и вставка - один INSERT ... ON CONFLICT
+            Optional<Long> id = userRepository.insertIfEmailAvailable(
+                    user.getEmail(), user.getPassword(), user.getRole().name());
+            if (id.isEmpty()) {
+                outcome = AuthMetrics.EMAIL_TAKEN;
+                return userMapper.toErrorResponse("Email already exists");
+            }
+            user.setId(id.get());
+            emailAvailabilityFilter.add(user.getEmail());
 
-            log.info("User registered successfully: {}", savedUser.getEmail());
+            log.info("User registered successfully: {}", user.getEmail());
+            outcome = AuthMetrics.SUCCESS;
 
             // Возвращаем успешный ответ без токена (требуем отдельный логин)
             return new LoginResponse(
                     "Registration successful. Please login.",
                     null, // Без токена - требуем отдельный логин
-                    userMapper.toUserInfo(savedUser)
+                    userMapper.toUserInfo(user)
             );
 
+        } catch (HashingCapacityExceededException e) {
+            // Пул хэширования перегружен - отдаём 503 через GlobalExceptionHandler
+            outcome = AuthMetrics.OVERLOADED;
+            throw e;
         } catch (Exception e) {
             log.error("Registration failed for user: {}", registerRequest.getEmail(), e);
             return userMapper.toErrorResponse("Registration failed: " + e.getMessage());
+        } finally {
+            authMetrics.stop(sample, "auth.register", "outcome", outcome);
         }
     }
 
     /**
-     * Проверка доступности email
+     * Проверка доступности email: Bloom-фильтр, а при ответе "возможно занят" -
+     * index-only scan по uk_users_email_lower
      */
     public boolean isEmailAvailable(String email) {
+        if (!emailAvailabilityFilter.mightContain(email)) {
+            return true;
+        }
         return !userRepository.existsByEmail(email);
     }
 
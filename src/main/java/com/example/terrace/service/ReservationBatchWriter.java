@@ -0,0 +1,285 @@
+package com.example.terrace.service;
+
+import com.example.terrace.dto.reservation.ReservationRequest;
+import com.example.terrace.mapper.ReservationMapper;
+import com.example.terrace.model.Reservation;
+import com.example.terrace.model.ReservationSlot;
+import com.example.terrace.repository.ReservationRepository;
+import com.example.terrace.repository.ReservationSlotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Write-behind запись бронирований (reservation.ingest.mode=batched).
+ * Бронь подтверждается после fsync в журнал. Fsync групповой: запросы дописывают
+ * записи под lock и ждут, поток reservation-journal-sync одним fsync подтверждает
+ * всё, что накопилось за время предыдущего. В PostgreSQL брони попадают пачками:
+ * один INSERT-батч на reservations (sequence + pooled optimizer, reWriteBatchedInserts)
+ * и по одному UPDATE на затронутый слот. Допуск по местам в этом режиме
+ * выполняет SlotCapacityIndex, поэтому режим рассчитан на один узел-писатель.
+ * В режиме direct бин не создаётся: ни журнала, ни потока fsync, ни flush по расписанию.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "reservation.ingest.mode", havingValue = "batched")
+public class ReservationBatchWriter {
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationSlotRepository slotRepository;
+    private final ReservationMapper reservationMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationJournal journal;
+    private final int batchSize;
+    private final int slotCapacity;
+
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    // Держится на время fsync и ротации сегмента; порядок захвата: syncLock, затем lock
+    private final Object syncLock = new Object();
+    private final List<ReservationJournal.JournalEntry> queue = new ArrayList<>();
+
+    // Записаны в журнал, ждут fsync
+    private final List<AwaitingSync> awaitingSync = new ArrayList<>();
+
+    // После ошибки fsync состояние файла не определено - новые брони не принимаются до рестарта
+    private RuntimeException journalFailure;
+
+    private volatile boolean running;
+    private Thread syncThread;
+
+    // Сегменты, чьи записи ещё не закоммичены (на случай ошибки БД)
+    private final Deque<PendingBatch> pendingBatches = new ArrayDeque<>();
+
+    public ReservationBatchWriter(ReservationRepository reservationRepository,
+                                  ReservationSlotRepository slotRepository,
+                                  ReservationMapper reservationMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${reservation.ingest.journal-dir:./data/reservation-journal}") Path journalDir,
+                                  @Value("${reservation.ingest.batch-size:500}") int batchSize,
+                                  @Value("${reservation.slot-capacity:40}") int slotCapacity) {
+        this.reservationRepository = reservationRepository;
+        this.slotRepository = slotRepository;
+        this.reservationMapper = reservationMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new ReservationJournal(journalDir, objectMapper);
+        this.batchSize = batchSize;
+        this.slotCapacity = slotCapacity;
+    }
+
+    /**
+     * Дозапись в БД бронирований, подтверждённых до прошлой остановки
+     */
+    @PostConstruct
+    void replay() {
+        for (Path segment : journal.existingSegments()) {
+            List<ReservationJournal.JournalEntry> entries = journal.read(segment);
+            if (!entries.isEmpty()) {
+                writeBatch(entries);
+                log.info("Replayed {} reservations from journal segment {}", entries.size(), segment.getFileName());
+            }
+            journal.delete(segment);
+        }
+        running = true;
+        syncThread = Thread.ofPlatform().name("reservation-journal-sync").daemon().start(this::syncLoop);
+    }
+
+    /**
+     * Принимает бронь: после возврата она записана на диск и будет сохранена в БД
+     */
+    public String submit(ReservationRequest request) {
+        ReservationJournal.JournalEntry entry =
+                new ReservationJournal.JournalEntry(UUID.randomUUID().toString(), request);
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        synchronized (lock) {
+            if (journalFailure != null) {
+                throw new IllegalStateException("Reservation journal is unavailable", journalFailure);
+            }
+            journal.append(entry);
+            queue.add(entry);
+            awaitingSync.add(new AwaitingSync(entry, durable));
+            lock.notifyAll();
+        }
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return entry.reference();
+    }
+
+    /**
+     * Бронь ещё не записана в БД (в очереди или в незакоммиченном сегменте)
+     */
+    public boolean isPending(String reference) {
+        synchronized (lock) {
+            return queue.stream().anyMatch(entry -> entry.reference().equals(reference))
+                    || pendingBatches.stream().anyMatch(batch -> batch.entries().stream()
+                    .anyMatch(entry -> entry.reference().equals(reference)));
+        }
+    }
+
+    // Групповой fsync: ждём записи, одним fsync подтверждаем всех накопившихся
+    private void syncLoop() {
+        while (running) {
+            synchronized (lock) {
+                while (running && awaitingSync.isEmpty()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            synchronized (syncLock) {
+                syncAwaiting();
+            }
+        }
+    }
+
+    // Вызывается под syncLock: сегмент не ротируется, пока идёт fsync
+    private void syncAwaiting() {
+        List<AwaitingSync> batch;
+        synchronized (lock) {
+            // Пусто, если эти записи уже подтвердила ротация
+            if (awaitingSync.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(awaitingSync);
+            awaitingSync.clear();
+        }
+        try {
+            journal.sync();
+        } catch (UncheckedIOException e) {
+            log.error("Reservation journal fsync failed, rejecting new reservations: {}", e.getMessage());
+            Set<ReservationJournal.JournalEntry> failed = new HashSet<>();
+            batch.forEach(waiter -> failed.add(waiter.entry()));
+            synchronized (lock) {
+                journalFailure = e;
+                // Клиенты получат ошибку - в БД эти брони не пишем. Байты могли остаться в сегменте:
+                // при падении до записи сегмента в БД replay их восстановит (как и fsync, прошедший частично)
+                queue.removeAll(failed);
+            }
+            batch.forEach(waiter -> waiter.durable().completeExceptionally(e));
+            return;
+        }
+        batch.forEach(waiter -> waiter.durable().complete(null));
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.ingest.flush-interval-ms:200}")
+    public void flush() {
+        synchronized (flushLock) {
+            flushPending();
+        }
+    }
+
+    private void flushPending() {
+        PendingBatch batch;
+        synchronized (syncLock) {
+            // Записи, ещё не прошедшие fsync, подтверждаются до закрытия сегмента
+            syncAwaiting();
+            synchronized (lock) {
+                if (!queue.isEmpty()) {
+                    pendingBatches.addLast(new PendingBatch(journal.rotate(), new ArrayList<>(queue)));
+                    queue.clear();
+                }
+                batch = pendingBatches.peekFirst();
+            }
+        }
+
+        while (batch != null) {
+            try {
+                for (int from = 0; from < batch.entries().size(); from += batchSize) {
+                    int to = Math.min(from + batchSize, batch.entries().size());
+                    writeBatch(batch.entries().subList(from, to));
+                }
+            } catch (RuntimeException e) {
+                // Сегмент остаётся на диске и в очереди - повторим на следующем flush
+                log.error("Reservation batch write failed, will retry: {}", e.getMessage());
+                return;
+            }
+            journal.delete(batch.segment());
+            synchronized (lock) {
+                pendingBatches.pollFirst();
+                batch = pendingBatches.peekFirst();
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        if (syncThread != null) {
+            syncThread.join();
+        }
+        flush();
+    }
+
+    private void writeBatch(List<ReservationJournal.JournalEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Идемпотентность при повторе: пропускаем уже сохранённые reference
+            Set<String> existing = reservationRepository.findExistingReferences(
+                    entries.stream().map(ReservationJournal.JournalEntry::reference).toList());
+
+            List<Reservation> reservations = new ArrayList<>(entries.size());
+            Map<SlotKey, Integer> guestsBySlot = new LinkedHashMap<>();
+            for (ReservationJournal.JournalEntry entry : entries) {
+                if (existing.contains(entry.reference())) {
+                    continue;
+                }
+                Reservation reservation = reservationMapper.toEntity(entry.request());
+                reservation.setReference(entry.reference());
+                reservations.add(reservation);
+                guestsBySlot.merge(new SlotKey(reservation.getDate(), reservation.getTime()),
+                        reservation.getGuests(), Integer::sum);
+            }
+
+            for (Map.Entry<SlotKey, Integer> slotGuests : guestsBySlot.entrySet()) {
+                SlotKey key = slotGuests.getKey();
+                slotRepository.insertIfAbsent(key.date(), key.time(), slotCapacity);
+                ReservationSlot slot = slotRepository.findForUpdate(key.date(), key.time())
+                        .orElseThrow(() -> new IllegalStateException("Reservation slot row is missing"));
+                slot.setBooked(slot.getBooked() + slotGuests.getValue());
+            }
+
+            reservationRepository.saveAll(reservations);
+        });
+    }
+
+    private record PendingBatch(Path segment, List<ReservationJournal.JournalEntry> entries) {
+    }
+
+    private record AwaitingSync(ReservationJournal.JournalEntry entry, CompletableFuture<Void> durable) {
+    }
+
+    private record SlotKey(LocalDate date, LocalTime time) {
+    }
+}
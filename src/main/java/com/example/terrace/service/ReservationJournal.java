@@ -0,0 +1,165 @@
+package com.example.terrace.service;
+
+import com.example.terrace.dto.reservation.ReservationRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only журнал принятых бронирований (JSON по строке на запись).
+ * append только пишет в файл, sync делает fsync всего записанного - так один fsync
+ * подтверждает группу броней. Сегмент удаляется, когда его записи закоммичены
+ * в PostgreSQL. Не потокобезопасен - синхронизацию обеспечивает ReservationBatchWriter.
+ */
+@Slf4j
+class ReservationJournal {
+
+    private static final String SEGMENT_PREFIX = "reservations-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    private long segmentSequence;
+    private Path currentSegment;
+    private FileChannel currentChannel;
+
+    ReservationJournal(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Сегменты, оставшиеся от прошлого запуска (по порядку создания)
+     */
+    List<Path> existingSegments() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                stream.forEach(segments::add);
+            }
+            segments.sort(null);
+            for (Path segment : segments) {
+                segmentSequence = Math.max(segmentSequence, sequenceOf(segment));
+            }
+            return segments;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list reservation journal segments", e);
+        }
+    }
+
+    List<JournalEntry> read(Path segment) {
+        try {
+            List<JournalEntry> entries = new ArrayList<>();
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    entries.add(objectMapper.readValue(line, JournalEntry.class));
+                } catch (IOException e) {
+                    // Недописанная последняя строка после сбоя - запись не была подтверждена
+                    log.warn("Skipping corrupt reservation journal line in {}", segment.getFileName());
+                }
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read reservation journal segment " + segment, e);
+        }
+    }
+
+    /**
+     * Дописывает запись в текущий сегмент без fsync: до sync она может потеряться при сбое
+     */
+    void append(JournalEntry entry) {
+        try {
+            if (currentChannel == null) {
+                openNextSegment();
+            }
+            byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                currentChannel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to reservation journal", e);
+        }
+    }
+
+    /**
+     * fsync всех записей текущего сегмента, дописанных до вызова
+     */
+    void sync() {
+        if (currentChannel == null) {
+            return;
+        }
+        try {
+            currentChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot sync reservation journal", e);
+        }
+    }
+
+    /**
+     * Закрывает текущий сегмент и возвращает его путь (или null, если записей не было).
+     * fsync не делает - перед ротацией вызывается sync
+     */
+    Path rotate() {
+        if (currentChannel == null) {
+            return null;
+        }
+        try {
+            currentChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close reservation journal segment", e);
+        } finally {
+            currentChannel = null;
+        }
+        Path closed = currentSegment;
+        currentSegment = null;
+        return closed;
+    }
+
+    void delete(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            log.warn("Cannot delete reservation journal segment {}: {}", segment, e.getMessage());
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        Files.createDirectories(directory);
+        segmentSequence++;
+        currentSegment = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segmentSequence, SEGMENT_SUFFIX));
+        currentChannel = FileChannel.open(currentSegment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Запись журнала: reference делает повторную запись в БД идемпотентной
+     */
+    record JournalEntry(String reference, ReservationRequest request) {
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.terrace.service;
+
+import com.example.terrace.dto.reservation.ReservationRequest;
+import com.example.terrace.dto.reservation.ReservationResponse;
+import com.example.terrace.enums.ReservationStatus;
+import com.example.terrace.mapper.ReservationMapper;
+import com.example.terrace.model.Reservation;
+import com.example.terrace.model.ReservationSlot;
+import com.example.terrace.repository.ReservationRepository;
+import com.example.terrace.repository.ReservationSlotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class ReservationService {
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationSlotRepository slotRepository;
+    private final ReservationMapper reservationMapper;
+    private final SlotCapacityIndex slotCapacityIndex;
+    // Есть только при reservation.ingest.mode=batched
+    private final ReservationBatchWriter batchWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    // direct - транзакция на каждую бронь, batched - журнал + групповой коммит
+    private final boolean batchedIngest;
+
+    // Вместимость одного слота (в гостях)
+    private final int slotCapacity;
+
+    // На сколько дней вперёд принимаются брони и запросы доступности
+    private final int bookingHorizonDays;
+
+    // Возраст дня в индексе, после которого он перечитывается из reservation_slots (direct)
+    private final Duration dayTtl;
+
+    public ReservationService(ReservationRepository reservationRepository,
+                              ReservationSlotRepository slotRepository,
+                              ReservationMapper reservationMapper,
+                              SlotCapacityIndex slotCapacityIndex,
+                              ObjectProvider<ReservationBatchWriter> batchWriter,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${reservation.slot-capacity:40}") int slotCapacity,
+                              @Value("${reservation.booking-horizon-days:90}") int bookingHorizonDays,
+                              @Value("${reservation.index.day-ttl:30s}") Duration dayTtl) {
+        this.reservationRepository = reservationRepository;
+        this.slotRepository = slotRepository;
+        this.reservationMapper = reservationMapper;
+        this.slotCapacityIndex = slotCapacityIndex;
+        this.batchWriter = batchWriter.getIfAvailable();
+        this.batchedIngest = this.batchWriter != null;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.slotCapacity = slotCapacity;
+        this.bookingHorizonDays = bookingHorizonDays;
+        this.dayTtl = dayTtl;
+    }
+
+    /**
+     * Дата от сегодня до горизонта бронирования включительно. Дни вне окна
+     * не загружаются в индекс: иначе перебор дат растит память и число запросов к БД
+     */
+    public boolean isBookable(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        return !date.isBefore(today) && !date.isAfter(today.plusDays(bookingHorizonDays));
+    }
+
+    /**
+     * Бронирование столика: сначала O(1) допуск по in-memory индексу,
+     * затем подтверждение под блокировкой строки слота в БД
+     */
+    public ReservationResponse create(ReservationRequest request) {
+        LocalDate date = request.getDate();
+        LocalTime time = request.getTime();
+        int guests = request.getGuests();
+
+        if (SlotCapacityIndex.slotIndex(time) < 0) {
+            return reservationMapper.toRejectedResponse(ReservationResponse.Outcome.INVALID_SLOT,
+                    "Unknown time slot");
+        }
+        if (!isBookable(date)) {
+            return reservationMapper.toRejectedResponse(ReservationResponse.Outcome.INVALID_SLOT,
+                    "Date is outside the booking window");
+        }
+
+        loadDay(date);
+        if (!slotCapacityIndex.tryReserve(date, time, guests)) {
+            return reservationMapper.toRejectedResponse(ReservationResponse.Outcome.SLOT_FULL,
+                    "No free tables for the selected time");
+        }
+
+        if (batchedIngest) {
+            return submitBatched(request);
+        }
+
+        Reservation saved;
+        try {
+            saved = transactionTemplate.execute(status -> persist(request));
+        } catch (RuntimeException e) {
+            slotCapacityIndex.release(date, time, guests);
+            throw e;
+        }
+
+        if (saved == null) {
+            // Индекс разошёлся с БД (например, бронь с другого узла) - БД главнее:
+            // перечитываем день целиком, а не только возвращаем места этого запроса
+            slotCapacityIndex.reload(date, this::loadRemaining);
+            return reservationMapper.toRejectedResponse(ReservationResponse.Outcome.SLOT_FULL,
+                    "No free tables for the selected time");
+        }
+
+        log.info("Reservation {} created for {} {} ({} guests)", saved.getId(), date, time, guests);
+        return reservationMapper.toConfirmedResponse(saved);
+    }
+
+    // Место уже занято в индексе; бронь подтверждается после записи в журнал
+    private ReservationResponse submitBatched(ReservationRequest request) {
+        try {
+            String reference = batchWriter.submit(request);
+            log.info("Reservation {} accepted for {} {} ({} guests)",
+                    reference, request.getDate(), request.getTime(), request.getGuests());
+            return reservationMapper.toAcceptedResponse(reference);
+        } catch (RuntimeException e) {
+            slotCapacityIndex.release(request.getDate(), request.getTime(), request.getGuests());
+            throw e;
+        }
+    }
+
+    /**
+     * Доступность слотов дня из in-memory индекса; БД читается при загрузке дня
+     * и не чаще раза в reservation.index.day-ttl
+     */
+    public SlotCapacityIndex.DayAvailability getAvailability(LocalDate date) {
+        loadDay(date);
+        return slotCapacityIndex.availability(date);
+    }
+
+    // В batched-режиме индекс - источник правды до записи журнала в БД: не перечитываем
+    private void loadDay(LocalDate date) {
+        if (batchedIngest) {
+            slotCapacityIndex.loadIfAbsent(date, this::loadRemaining);
+        } else {
+            slotCapacityIndex.loadIfStale(date, dayTtl, this::loadRemaining);
+        }
+    }
+
+    /**
+     * Отмена бронирования с возвратом мест в слот
+     */
+    public ReservationResponse cancel(Long reservationId) {
+        return cancel(() -> reservationRepository.findById(reservationId));
+    }
+
+    /**
+     * Отмена по reference. В batched-режиме принятая бронь может быть ещё только
+     * в журнале - тогда сначала дописываем её в БД, а затем отменяем как обычно
+     */
+    public ReservationResponse cancel(String reference) {
+        if (batchedIngest && batchWriter.isPending(reference)) {
+            batchWriter.flush();
+            if (batchWriter.isPending(reference)) {
+                throw new IllegalStateException("Reservation " + reference + " is not yet written, retry later");
+            }
+        }
+        return cancel(() -> reservationRepository.findByReference(reference));
+    }
+
+    private ReservationResponse cancel(Supplier<Optional<Reservation>> lookup) {
+        Reservation cancelled = transactionTemplate.execute(status -> {
+            Reservation reservation = lookup.get().orElse(null);
+            if (reservation == null || reservation.getStatus() == ReservationStatus.CANCELLED) {
+                return null;
+            }
+            ReservationSlot slot = slotRepository.findForUpdate(reservation.getDate(), reservation.getTime())
+                    .orElseThrow(() -> new IllegalStateException("Reservation slot row is missing"));
+            slot.setBooked(Math.max(0, slot.getBooked() - reservation.getGuests()));
+            reservation.setStatus(ReservationStatus.CANCELLED);
+            return reservation;
+        });
+
+        if (cancelled == null) {
+            return reservationMapper.toRejectedResponse(ReservationResponse.Outcome.NOT_FOUND,
+                    "Reservation not found");
+        }
+
+        // Индекс обновляется только после коммита
+        slotCapacityIndex.release(cancelled.getDate(), cancelled.getTime(), cancelled.getGuests());
+        log.info("Reservation {} cancelled", cancelled.getId());
+        return reservationMapper.toCancelledResponse(cancelled);
+    }
+
+    private Reservation persist(ReservationRequest request) {
+        slotRepository.insertIfAbsent(request.getDate(), request.getTime(), slotCapacity);
+        ReservationSlot slot = slotRepository.findForUpdate(request.getDate(), request.getTime())
+                .orElseThrow(() -> new IllegalStateException("Reservation slot row is missing"));
+
+        if (slot.getRemaining() < request.getGuests()) {
+            return null;
+        }
+
+        slot.setBooked(slot.getBooked() + request.getGuests());
+        return reservationRepository.save(reservationMapper.toEntity(request));
+    }
+
+    // Остатки дня по строкам слотов, без подсчёта по таблице reservations
+    private int[] loadRemaining(LocalDate date) {
+        int[] remaining = new int[SlotCapacityIndex.SLOT_COUNT];
+        Arrays.fill(remaining, slotCapacity);
+        for (ReservationSlot slot : slotRepository.findBySlotDate(date)) {
+            int index = SlotCapacityIndex.slotIndex(slot.getSlotTime());
+            if (index >= 0) {
+                remaining[index] = slot.getRemaining();
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Раз в сутки убираем из индекса прошедшие дни
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void evictPastDays() {
+        slotCapacityIndex.evictBefore(LocalDate.now());
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.terrace.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-memory индекс свободных мест по слотам (дата + время).
+ * На каждый день - AtomicIntegerArray, в котором у каждого слота своя кэш-линия
+ * (шаг STRIDE int = 64 байта): остаток мест и счётчик изменений слота. Допуск - CAS
+ * по ячейке слота, поэтому брони в разные слоты не конкурируют ни за ячейки, ни за линии.
+ * Окончательное решение принимает строка reservation_slots под FOR UPDATE; индекс
+ * каждого узла перечитывает день из БД при расхождении и по возрасту (loadIfStale),
+ * так что брони с других узлов доходят и сюда.
+ * Тот же массив служит готовой картой доступности дня для /api/reservations/availability.
+ */
+@Component
+public class SlotCapacityIndex {
+
+    // Слоты каждые 30 минут с 11:00 до 22:00 включительно
+    public static final LocalTime FIRST_SLOT = LocalTime.of(11, 0);
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOT_COUNT = 23;
+
+    // 16 int = 64 байта: слоты не делят кэш-линию (false sharing), первая линия массива - отступ
+    static final int STRIDE = 16;
+    private static final int REMAINING = 0;
+    private static final int CHANGES = 1;
+
+    private static final List<LocalTime> SLOTS;
+
+    static {
+        List<LocalTime> slots = new ArrayList<>(SLOT_COUNT);
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            slots.add(FIRST_SLOT.plusMinutes((long) i * SLOT_MINUTES));
+        }
+        SLOTS = Collections.unmodifiableList(slots);
+    }
+
+    private final ConcurrentMap<LocalDate, DayCapacity> days = new ConcurrentHashMap<>();
+
+    public static List<LocalTime> slots() {
+        return SLOTS;
+    }
+
+    /**
+     * Номер слота для времени или -1, если такого слота нет
+     */
+    public static int slotIndex(LocalTime time) {
+        if (time == null || time.getSecond() != 0 || time.getNano() != 0) {
+            return -1;
+        }
+        int minutes = (time.getHour() * 60 + time.getMinute()) - (FIRST_SLOT.getHour() * 60 + FIRST_SLOT.getMinute());
+        if (minutes < 0 || minutes % SLOT_MINUTES != 0) {
+            return -1;
+        }
+        int index = minutes / SLOT_MINUTES;
+        return index < SLOT_COUNT ? index : -1;
+    }
+
+    /**
+     * Загружает остатки дня, если его ещё нет в индексе.
+     * Loader вызывается вне блокировок map и возвращает массив из SLOT_COUNT остатков.
+     */
+    public void loadIfAbsent(LocalDate date, Function<LocalDate, int[]> loader) {
+        if (days.containsKey(date)) {
+            return;
+        }
+        int[] remaining = loader.apply(date);
+        days.putIfAbsent(date, new DayCapacity(remaining));
+    }
+
+    /**
+     * Как loadIfAbsent, но день старше maxAge перечитывается. Перечитывает один поток,
+     * остальные в это время работают со старыми остатками
+     */
+    public void loadIfStale(LocalDate date, Duration maxAge, Function<LocalDate, int[]> loader) {
+        DayCapacity day = days.get(date);
+        if (day == null) {
+            loadIfAbsent(date, loader);
+            return;
+        }
+        long loadedAt = day.loadedAt.get();
+        long now = System.nanoTime();
+        if (now - loadedAt >= maxAge.toNanos() && day.loadedAt.compareAndSet(loadedAt, now)) {
+            day.reset(loader.apply(date));
+        }
+    }
+
+    /**
+     * Перечитывает день из БД (остатки в индексе разошлись с reservation_slots)
+     */
+    public void reload(LocalDate date, Function<LocalDate, int[]> loader) {
+        int[] remaining = loader.apply(date);
+        DayCapacity day = days.get(date);
+        if (day == null) {
+            days.putIfAbsent(date, new DayCapacity(remaining));
+            return;
+        }
+        day.loadedAt.set(System.nanoTime());
+        day.reset(remaining);
+    }
+
+    public boolean tryReserve(LocalDate date, LocalTime time, int guests) {
+        DayCapacity day = days.get(date);
+        int slot = slotIndex(time);
+        if (day == null || slot < 0) {
+            return false;
+        }
+        int cell = DayCapacity.cell(slot, REMAINING);
+        while (true) {
+            int left = day.cells.get(cell);
+            if (left < guests) {
+                return false;
+            }
+            if (day.cells.compareAndSet(cell, left, left - guests)) {
+                day.changed(slot);
+                return true;
+            }
+        }
+    }
+
+    public void release(LocalDate date, LocalTime time, int guests) {
+        DayCapacity day = days.get(date);
+        int slot = slotIndex(time);
+        if (day != null && slot >= 0) {
+            day.cells.addAndGet(DayCapacity.cell(slot, REMAINING), guests);
+            day.changed(slot);
+        }
+    }
+
+    /**
+     * Снимок доступности дня или null, если день не загружен
+     */
+    public DayAvailability availability(LocalDate date) {
+        DayCapacity day = days.get(date);
+        if (day == null) {
+            return null;
+        }
+        // Версию читаем до значений: при гонке ETag окажется старше данных, а не наоборот
+        long version = day.version();
+        long lastModified = day.lastModified(version);
+        int[] remaining = new int[SLOT_COUNT];
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            remaining[i] = Math.max(0, day.cells.get(DayCapacity.cell(i, REMAINING)));
+        }
+        return new DayAvailability(date, remaining, version, lastModified);
+    }
+
+    /**
+     * Удаляет из индекса прошедшие дни
+     */
+    public void evictBefore(LocalDate date) {
+        days.keySet().removeIf(day -> day.isBefore(date));
+    }
+
+    /**
+     * Остатки по слотам на момент чтения; version растёт при каждом изменении дня.
+     * lastModified - момент, когда чтение впервые увидело эту версию (не раньше самого изменения)
+     */
+    public record DayAvailability(LocalDate date, int[] remaining, long version, long lastModified) {
+    }
+
+    private static final class DayCapacity {
+        private final AtomicIntegerArray cells = new AtomicIntegerArray((SLOT_COUNT + 2) * STRIDE);
+        // Общие для дня поля пишутся только при чтении доступности, не на пути брони
+        private long observedVersion;
+        private long lastModified = System.currentTimeMillis();
+        // Момент загрузки из БД (System.nanoTime); на пути брони только читается
+        private final AtomicLong loadedAt = new AtomicLong(System.nanoTime());
+
+        private DayCapacity(int[] remaining) {
+            for (int i = 0; i < SLOT_COUNT; i++) {
+                cells.set(cell(i, REMAINING), remaining[i]);
+            }
+        }
+
+        // Остатки из БД; версия растёт только у слотов, где значение изменилось
+        private void reset(int[] remaining) {
+            for (int i = 0; i < SLOT_COUNT; i++) {
+                if (cells.getAndSet(cell(i, REMAINING), remaining[i]) != remaining[i]) {
+                    changed(i);
+                }
+            }
+        }
+
+        private static int cell(int slot, int field) {
+            return (slot + 1) * STRIDE + field;
+        }
+
+        // Счётчик лежит в линии слота, которую бронь уже захватила CAS-ом
+        private void changed(int slot) {
+            cells.incrementAndGet(cell(slot, CHANGES));
+        }
+
+        // Сумма счётчиков слотов: каждый только растёт, значит и сумма монотонна
+        private long version() {
+            long version = 0;
+            for (int i = 0; i < SLOT_COUNT; i++) {
+                version += Integer.toUnsignedLong(cells.get(cell(i, CHANGES)));
+            }
+            return version;
+        }
+
+        private synchronized long lastModified(long version) {
+            if (version != observedVersion) {
+                observedVersion = version;
+                lastModified = System.currentTimeMillis();
+            }
+            return lastModified;
+        }
+    }
+}
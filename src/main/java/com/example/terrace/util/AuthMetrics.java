@@ -0,0 +1,68 @@
+package com.example.terrace.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймеры горячего пути аутентификации (auth.*).
+ * Гистограммы перцентилей включаются в application.properties
+ * (management.metrics.distribution.percentiles-histogram.auth)
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String BAD_CREDENTIALS = "bad_credentials";
+    public static final String EXPIRED = "expired";
+    public static final String MALFORMED = "malformed";
+    public static final String BAD_SIGNATURE = "bad_signature";
+    public static final String REVOKED = "revoked";
+    public static final String NOT_FOUND = "not_found";
+    // sub токена не совпал с именем найденного пользователя
+    public static final String SUBJECT_MISMATCH = "subject_mismatch";
+    public static final String OVERLOADED = "overloaded";
+    public static final String PASSWORD_MISMATCH = "password_mismatch";
+    public static final String EMAIL_TAKEN = "email_taken";
+    // Запрос уже аутентифицирован раньше в цепочке - токен проверен, пользователь не искался
+    public static final String ALREADY_AUTHENTICATED = "already_authenticated";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    // Доля запросов, попадающих в метрики каждого запроса (проверка JWT, фильтр)
+    @Value("${auth.metrics.sample-rate:0.1}")
+    private double sampleRate;
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stop(Timer.Sample sample, String name, String... tags) {
+        sample.stop(meterRegistry.timer(name, tags));
+    }
+
+    public void record(String name, long nanos, String... tags) {
+        meterRegistry.timer(name, tags).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public boolean sample() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Счётчик по выборке: попавший в выборку запрос добавляет 1/sampleRate,
+     * так что сумма остаётся оценкой полного числа
+     */
+    public void countSampled(String name, String... tags) {
+        if (sampleRate > 0 && sample()) {
+            meterRegistry.counter(name, tags).increment(sampleRate >= 1.0 ? 1.0 : 1.0 / sampleRate);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.terrace.util;
+
+import com.example.terrace.enums.UserRole;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * UserDetails с id и ролью пользователя: principal после логина
+ * сразу отдаётся в UserMapper без повторного запроса в users.
+ */
+@Getter
+public class CustomUserDetails implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String email;
+    private String password;
+    private final UserRole role;
+    private final List<GrantedAuthority> authorities;
+
+    public CustomUserDetails(Long id, String email, String password, UserRole role) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+        // Формируем authority в формате Spring Security, например, "ROLE_ADMIN"
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    /**
+     * Копия для выдачи из кэша: eraseCredentials() не должен портить закэшированный экземпляр
+     */
+    public CustomUserDetails copy() {
+        return new CustomUserDetails(id, email, password, role);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
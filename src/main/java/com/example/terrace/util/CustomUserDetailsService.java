@@ -1,36 +1,112 @@
 package com.example.terrace.util;
 
-import com.example.terrace.model.User;
+import com.example.terrace.event.UserChangedEvent;
+import com.example.terrace.dto.user.UserCredentials;
 import com.example.terrace.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.util.Locale;
+
+@Slf4j
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final AuthMetrics authMetrics;
+
+    // Кэш UserDetails по email: ограничен по размеру и TTL, считает hit/miss
+    private final Cache<String, CustomUserDetails> userDetailsCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    MeterRegistry meterRegistry,
+                                    AuthMetrics authMetrics,
+                                    @Value("${security.user-cache.max-size:10000}") long maxSize,
+                                    @Value("${security.user-cache.ttl:5m}") Duration ttl) {
         this.userRepository = userRepository;
+        this.authMetrics = authMetrics;
+        this.userDetailsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, "userDetails");
     }
 
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
-
-        // Маппинг вашего User на стандартный Spring Security UserDetails
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                // Формируем authority в формате Spring Security, например, "ROLE_ADMIN"
-                .authorities("ROLE_" + user.getRole().name())
-                .accountExpired(false)
-                .accountLocked(false)
-                .credentialsExpired(false)
-                .disabled(false)
-                .build();
+    public CustomUserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        Timer.Sample sample = authMetrics.start();
+        CustomUserDetails cached = userDetailsCache.get(cacheKey(email), this::loadFromDatabase);
+        if (cached == null) {
+            authMetrics.stop(sample, "auth.user.lookup", "outcome", AuthMetrics.NOT_FOUND);
+            throw new UsernameNotFoundException("User not found: " + email);
+        }
+        authMetrics.stop(sample, "auth.user.lookup", "outcome", AuthMetrics.SUCCESS);
+        // Отдаём копию: AuthenticationManager стирает пароль у principal после логина
+        return cached.copy();
+    }
+
+    private CustomUserDetails loadFromDatabase(String email) {
+        // Отдельный таймер на запрос в БД: промахи кэша видны отдельно от общего времени
+        Timer.Sample sample = authMetrics.start();
+        UserCredentials user = userRepository.findCredentialsByEmail(email).orElse(null);
+        authMetrics.stop(sample, "auth.user.db");
+        if (user == null) {
+            return null; // Отсутствующих пользователей не кэшируем
+        }
+
+        // Маппинг вашего User на UserDetails с id и ролью
+        return new CustomUserDetails(user.id(), user.email(), user.password(), user.role());
+    }
+
+    /**
+     * Перехэширование пароля с актуальными параметрами после успешного логина.
+     * Вызывается DaoAuthenticationProvider, когда PasswordEncoder.upgradeEncoding() == true
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        UserCredentials user = userRepository.findCredentialsByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        // Пароль тот же, меняется только хэш: без UserChangedEvent, иначе отозвались бы все токены
+        userRepository.updatePassword(user.email(), newPassword);
+        userDetailsCache.invalidate(cacheKey(user.email()));
+
+        log.info("Password hash upgraded for user: {}", user.email());
+        return new CustomUserDetails(user.id(), user.email(), newPassword, user.role());
+    }
+
+    /**
+     * Сброс записи после коммита изменения пользователя (пароль, роль, удаление)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        userDetailsCache.invalidate(cacheKey(event.email()));
+    }
+
+    // Email сравнивается без учёта регистра - ключ кэша тоже
+    private static String cacheKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Статистика кэша для подбора размера (также доступна в /actuator/metrics/cache.gets)
+     */
+    public CacheStats getCacheStats() {
+        return userDetailsCache.stats();
     }
 }
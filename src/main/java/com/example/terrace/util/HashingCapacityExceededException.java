@@ -0,0 +1,11 @@
+package com.example.terrace.util;
+
+/**
+ * Очередь хэширования паролей переполнена - запрос отклоняется сразу (HTTP 503)
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.terrace.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Шифрование ключей связки перед записью в jwt_signing_keys: AES-256-GCM под ключом
+ * из конфигурации (jwt.keys.encryption-key). Дамп или копия БД без этого ключа
+ * не позволяет подделать токен. kid - связанные данные (AAD): шифртекст нельзя
+ * переставить в другую строку. Формат: base64(iv || шифртекст || тег)
+ */
+final class JwtKeyCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    JwtKeyCipher(String base64Key) {
+        byte[] bytes = Base64.getDecoder().decode(base64Key);
+        if (bytes.length != 32) {
+            throw new IllegalStateException("jwt.keys.encryption-key must be a Base64-encoded 256-bit AES key");
+        }
+        this.key = new SecretKeySpec(bytes, "AES");
+    }
+
+    String encrypt(String kid, byte[] plaintext) {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + ciphertext.length)
+                    .put(iv)
+                    .put(ciphertext)
+                    .array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot encrypt JWT signing key " + kid, e);
+        }
+    }
+
+    byte[] decrypt(String kid, String stored) {
+        byte[] bytes = Base64.getDecoder().decode(stored);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_LENGTH));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            return cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            // Чаще всего - другой jwt.keys.encryption-key, чем у узла, выпустившего ключ
+            throw new IllegalStateException("Cannot decrypt JWT signing key " + kid, e);
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.terrace.util;
+
+import com.example.terrace.model.JwtKeyRingState;
+import com.example.terrace.model.JwtSigningKey;
+import com.example.terrace.repository.JwtKeyRingStateRepository;
+import com.example.terrace.repository.JwtSigningKeyRepository;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.SecretKey;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Связка ключей подписи JWT. Подпись - активным ключом (kid в заголовке),
+ * проверка - любым ещё действующим ключом. Ключи разобраны заранее и лежат
+ * в неизменяемом снимке, который подменяется целиком при перечитывании.
+ * Следующий ключ публикуется за jwt.keys.rotation.pre-publish до того, как начнёт
+ * подписывать: к этому моменту его знают все узлы и потребители JWKS.
+ * Без ротации (jwt.keys.rotation.enabled=false) единственный ключ - HS256 из jwt.secret.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    // max-age ответа /.well-known/jwks.json
+    public static final Duration JWKS_MAX_AGE = Duration.ofMinutes(5);
+
+    static final String HS256 = "HS256";
+    static final String ES256 = "ES256";
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final JwtSigningKeyRepository keyRepository;
+    private final JwtKeyRingStateRepository stateRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    // kid ключа из jwt.secret; токены без kid (выпущенные до связки) проверяются им же
+    @Value("${jwt.keys.static-kid:static}")
+    private String staticKid;
+
+    @Value("${jwt.keys.rotation.enabled:false}")
+    private boolean rotationEnabled;
+
+    // Алгоритм новых ключей: HS256 или ES256 (ES256 - другие сервисы проверяют по JWKS без секрета)
+    @Value("${jwt.keys.algorithm:HS256}")
+    private String algorithm;
+
+    @Value("${jwt.keys.rotation.interval:7d}")
+    private Duration rotationInterval;
+
+    // За сколько до активации следующий ключ появляется в связке и JWKS
+    @Value("${jwt.keys.rotation.pre-publish:15m}")
+    private Duration prePublish;
+
+    @Value("${jwt.keys.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    // Неизвестный kid перечитывает ключи не чаще этого интервала: мусорные kid не нагружают БД
+    @Value("${jwt.keys.unknown-kid-reload-interval:5s}")
+    private Duration unknownKidReloadInterval;
+
+    // AES-256 (Base64) для ключей в jwt_signing_keys; обязателен при включённой ротации
+    @Value("${jwt.keys.encryption-key:}")
+    private String encryptionKey;
+
+    private final AtomicLong lastReloadNanos = new AtomicLong();
+
+    private JwtKeyCipher cipher;
+
+    private volatile Snapshot snapshot;
+
+    public JwtKeyRing(JwtSigningKeyRepository keyRepository, JwtKeyRingStateRepository stateRepository,
+                      PlatformTransactionManager transactionManager) {
+        this.keyRepository = keyRepository;
+        this.stateRepository = stateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void init() {
+        if (!HS256.equals(algorithm) && !ES256.equals(algorithm)) {
+            throw new IllegalStateException("Unsupported JWT signing algorithm: " + algorithm);
+        }
+        if (rotationEnabled) {
+            if (encryptionKey == null || encryptionKey.isBlank()) {
+                throw new IllegalStateException(
+                        "jwt.keys.encryption-key is required when jwt.keys.rotation.enabled=true");
+            }
+            cipher = new JwtKeyCipher(encryptionKey);
+            // Узел, перечитывающий ключи реже, начал бы подписывать неизвестным ему ключом
+            Duration lag = Duration.ofMillis(refreshIntervalMs).plus(JWKS_MAX_AGE);
+            if (prePublish.compareTo(lag) < 0 || prePublish.compareTo(rotationInterval) >= 0) {
+                throw new IllegalStateException("jwt.keys.rotation.pre-publish must be at least " + lag
+                        + " (refresh interval + JWKS max-age) and shorter than the rotation interval");
+            }
+            lastReloadNanos.set(System.nanoTime() - unknownKidReloadInterval.toNanos());
+            rotate();
+        } else {
+            RingKey key = staticKey();
+            snapshot = new Snapshot(key, null, null, Map.of(key.kid(), key));
+        }
+    }
+
+    /**
+     * Ключ подписи. Опубликованный следующий ключ подменяет текущий ровно в момент
+     * активации, не дожидаясь очередного перечитывания
+     */
+    public RingKey activeKey() {
+        Snapshot current = snapshot;
+        if (current.next() != null && !Instant.now().isBefore(current.nextActivatesAt())) {
+            return current.next();
+        }
+        return current.active();
+    }
+
+    /**
+     * Ключ проверки по kid; null - ключ неизвестен или уже выведен.
+     * Неизвестный kid может быть ключом, который другой узел выпустил после нашего
+     * перечитывания, - тогда связка перечитывается сразу (не чаще unknown-kid-reload-interval)
+     */
+    public RingKey verificationKey(String kid) {
+        if (kid == null) {
+            return snapshot.byKid().get(staticKid);
+        }
+        RingKey key = snapshot.byKid().get(kid);
+        if (key == null && rotationEnabled && tryStartReload()) {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("JWT key ring reload for unknown kid failed: {}", e.getMessage());
+            }
+            key = snapshot.byKid().get(kid);
+        }
+        return key;
+    }
+
+    /**
+     * Публичные ключи в формате JWK (только асимметричные - секреты HMAC не публикуются).
+     * Следующий ключ публикуется заранее, до активации
+     */
+    public List<Map<String, Object>> publicJwks() {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (RingKey key : snapshot.byKid().values()) {
+            if (key.verificationKey() instanceof ECPublicKey publicKey) {
+                Map<String, Object> jwk = new LinkedHashMap<>();
+                jwk.put("kty", "EC");
+                jwk.put("crv", "P-256");
+                jwk.put("use", "sig");
+                jwk.put("alg", key.algorithm());
+                jwk.put("kid", key.kid());
+                jwk.put("x", BASE64URL.encodeToString(coordinate(publicKey.getW().getAffineX())));
+                jwk.put("y", BASE64URL.encodeToString(coordinate(publicKey.getW().getAffineY())));
+                jwks.add(jwk);
+            }
+        }
+        return jwks;
+    }
+
+    /**
+     * Перечитывает ключи (в т.ч. созданные другими узлами), заранее выпускает следующий
+     * ключ и удаляет ключи, токены которых уже истекли. Два узла могут выпустить ключ
+     * одновременно - порядок (activatesAt, kid) у всех узлов один, проверяются оба
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.refresh-interval-ms:60000}",
+            initialDelayString = "${jwt.keys.refresh-interval-ms:60000}")
+    public synchronized void rotate() {
+        if (!rotationEnabled) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            stateRepository.markRotationEnabled(now);
+            List<JwtSigningKey> stored = new ArrayList<>(keyRepository.findAllByOrderByActivatesAtDescKidDesc());
+
+            JwtSigningKey current = current(stored, now);
+            if (current == null) {
+                // Первый запуск или смена алгоритма: подписывать нечем, ключ активен сразу
+                current = keyRepository.save(generate(now, now));
+                stored.add(0, current);
+                log.info("JWT signing key created, kid: {}", current.getKid());
+            }
+            if (next(stored, now) == null
+                    && !current.getActivatesAt().plus(rotationInterval).minus(prePublish).isAfter(now)) {
+                Instant activatesAt = max(current.getActivatesAt().plus(rotationInterval), now.plus(prePublish));
+                JwtSigningKey next = keyRepository.save(generate(now, activatesAt));
+                stored.add(0, next);
+                log.info("JWT signing key published, kid: {}, signs from {}", next.getKid(), activatesAt);
+            }
+
+            List<String> retired = retired(stored, current, now);
+            if (!retired.isEmpty()) {
+                keyRepository.deleteAllByIdInBatch(retired);
+                stored.removeIf(key -> retired.contains(key.getKid()));
+                log.info("JWT signing keys retired: {}", retired);
+            }
+
+            snapshot = snapshot(stored, rotationEnabledAt(), now);
+        });
+    }
+
+    // Только чтение: ключи не выпускаются и не удаляются
+    private synchronized void reload() {
+        Instant now = Instant.now();
+        snapshot = snapshot(keyRepository.findAllByOrderByActivatesAtDescKidDesc(), rotationEnabledAt(), now);
+    }
+
+    private boolean tryStartReload() {
+        long now = System.nanoTime();
+        long last = lastReloadNanos.get();
+        return now - last >= unknownKidReloadInterval.toNanos() && lastReloadNanos.compareAndSet(last, now);
+    }
+
+    private Instant rotationEnabledAt() {
+        return stateRepository.findById(JwtKeyRingState.ID)
+                .map(JwtKeyRingState::getRotationEnabledAt)
+                .orElseGet(Instant::now);
+    }
+
+    // Самый новый уже активный ключ нужного алгоритма
+    private JwtSigningKey current(List<JwtSigningKey> stored, Instant now) {
+        for (JwtSigningKey key : stored) {
+            if (algorithm.equals(key.getAlgorithm()) && !key.getActivatesAt().isAfter(now)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    // Ближайший опубликованный, но ещё не активный ключ нужного алгоритма
+    private JwtSigningKey next(List<JwtSigningKey> stored, Instant now) {
+        JwtSigningKey next = null;
+        for (JwtSigningKey key : stored) {
+            if (algorithm.equals(key.getAlgorithm()) && key.getActivatesAt().isAfter(now)) {
+                next = key;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Ключ перестаёт подписывать, когда активируется следующий. Он нужен для проверки,
+     * пока живут подписанные им токены, плюс интервал перечитывания: узел, не успевший
+     * узнать о следующем ключе, подписывает старым до своего перечитывания
+     */
+    private List<String> retired(List<JwtSigningKey> stored, JwtSigningKey current, Instant now) {
+        Duration grace = Duration.ofMillis(JwtUtil.EXPIRATION_TIME).plusMillis(refreshIntervalMs);
+        List<String> retired = new ArrayList<>();
+        Instant successorActivatesAt = null;
+        for (JwtSigningKey key : stored) {
+            if (key.getActivatesAt().isAfter(now)) {
+                continue;
+            }
+            if (key != current && successorActivatesAt != null
+                    && !successorActivatesAt.plus(grace).isAfter(now)) {
+                retired.add(key.getKid());
+            }
+            successorActivatesAt = key.getActivatesAt();
+        }
+        return retired;
+    }
+
+    private Snapshot snapshot(List<JwtSigningKey> stored, Instant rotationEnabledAt, Instant now) {
+        Map<String, RingKey> byKid = new HashMap<>();
+        // Ключ из jwt.secret подписывал до включения ротации (на узлах без неё - ещё интервал ротации)
+        if (rotationEnabledAt.plus(rotationInterval).plusMillis(JwtUtil.EXPIRATION_TIME).isAfter(now)) {
+            RingKey legacy = staticKey();
+            byKid.put(legacy.kid(), legacy);
+        } else if (snapshot != null && snapshot.byKid().containsKey(staticKid)) {
+            log.info("JWT static key '{}' retired", staticKid);
+        }
+        for (JwtSigningKey key : stored) {
+            byKid.put(key.getKid(), decode(key, cipher));
+        }
+        JwtSigningKey current = current(stored, now);
+        JwtSigningKey next = next(stored, now);
+        if (current == null) {
+            // Ключи ещё не выпущены (перечитывание раньше первой ротации) - оставляем прежний
+            return new Snapshot(snapshot.active(), null, null, Map.copyOf(byKid));
+        }
+        return new Snapshot(byKid.get(current.getKid()),
+                next != null ? byKid.get(next.getKid()) : null,
+                next != null ? next.getActivatesAt() : null,
+                Map.copyOf(byKid));
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private RingKey staticKey() {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
+        Key key = Keys.hmacShaKeyFor(keyBytes);
+        return new RingKey(staticKid, HS256, key, key);
+    }
+
+    private JwtSigningKey generate(Instant now, Instant activatesAt) {
+        String kid = UUID.randomUUID().toString();
+        if (ES256.equals(algorithm)) {
+            KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+            return new JwtSigningKey(kid, algorithm,
+                    cipher.encrypt(kid, keyPair.getPrivate().getEncoded()),
+                    Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                    now, activatesAt);
+        }
+        return new JwtSigningKey(kid, algorithm,
+                cipher.encrypt(kid, Jwts.SIG.HS256.key().build().getEncoded()),
+                null,
+                now, activatesAt);
+    }
+
+    // Секрет/приватный ключ хранится зашифрованным, публичный ключ - открыто
+    static RingKey decode(JwtSigningKey stored, JwtKeyCipher cipher) {
+        byte[] privateKeyBytes = cipher.decrypt(stored.getKid(), stored.getPrivateKey());
+        if (HS256.equals(stored.getAlgorithm())) {
+            Key key = Keys.hmacShaKeyFor(privateKeyBytes);
+            return new RingKey(stored.getKid(), HS256, key, key);
+        }
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            Key privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privateKeyBytes));
+            Key publicKey = keyFactory.generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(stored.getPublicKey())));
+            return new RingKey(stored.getKid(), ES256, privateKey, publicKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot decode JWT signing key " + stored.getKid(), e);
+        }
+    }
+
+    // Координата точки P-256 ровно в 32 байта без знакового байта BigInteger
+    private static byte[] coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length == 32) {
+            return bytes;
+        }
+        byte[] fixed = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, fixed, 32 - length, length);
+        return fixed;
+    }
+
+    /**
+     * Ключ связки; algorithm - JWA-имя (HS256 | ES256), как в заголовке alg
+     */
+    public record RingKey(String kid, String algorithm, Key signingKey, Key verificationKey) {
+
+        // kid в заголовок и подпись алгоритмом ключа (а не подобранным по длине секрета)
+        public JwtBuilder signWith(JwtBuilder builder) {
+            builder.header().keyId(kid);
+            if (signingKey instanceof SecretKey secretKey) {
+                return builder.signWith(secretKey, Jwts.SIG.HS256);
+            }
+            return builder.signWith((PrivateKey) signingKey, Jwts.SIG.ES256);
+        }
+    }
+
+    private record Snapshot(RingKey active, RingKey next, Instant nextActivatesAt, Map<String, RingKey> byKid) {
+    }
+}
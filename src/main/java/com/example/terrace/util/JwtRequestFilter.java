@@ -1,5 +1,8 @@
 
 package com.example.terrace.util;
+import com.example.terrace.enums.UserRole;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -7,8 +10,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -19,6 +25,8 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -31,6 +39,12 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuthMetrics authMetrics;
+
+    // Stateless-режим: principal собирается из claims sub/roles без запроса в users
+    @Value("${jwt.stateless-principal.enabled:false}")
+    private boolean statelessPrincipal;
 
     // Извлечение JWT из Cookie
     private String extractJwtFromCookie(HttpServletRequest request) {
@@ -77,55 +91,154 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             return;
         }
 
-        String username = null;
-        try {
-            username = jwtUtil.extractUsername(jwt);
-        } catch (Exception e) {
-            log.warn("Error extracting username from JWT: {}", e.getMessage());
-            // Можно добавить кастомный заголовок с ошибкой
-            response.addHeader("JWT-Error", "Invalid token");
+        // Время разбора токена и поиска пользователя, с тегом outcome (по выборке запросов)
+        Timer.Sample sample = authMetrics.sample() ? authMetrics.start() : null;
+        String outcome = null;
+
+        // Без исключений и логов на запрос: мусорные токены отсекаются до проверки подписи
+        Claims claims = null;
+        switch (jwtUtil.validate(jwt)) {
+            case JwtValidationResult.Valid valid -> claims = valid.claims();
+            case JwtValidationResult.Expired expired -> {
+                response.addHeader("JWT-Error", "Expired token");
+                outcome = AuthMetrics.EXPIRED;
+            }
+            case JwtValidationResult.Malformed malformed -> {
+                response.addHeader("JWT-Error", "Invalid token");
+                outcome = AuthMetrics.MALFORMED;
+            }
+            case JwtValidationResult.BadSignature badSignature -> {
+                response.addHeader("JWT-Error", "Invalid token");
+                outcome = AuthMetrics.BAD_SIGNATURE;
+            }
         }
 
-        // Если имя пользователя извлечено и контекст безопасности пуст
-        if (StringUtils.hasText(username) &&
-                SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities()
-                            );
-
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
-
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.debug("User '{}' authenticated successfully", username);
-                } else {
-                    log.warn("JWT token validation failed for user: {}", username);
-                }
-            } catch (UsernameNotFoundException e) {
-                log.warn("User not found: {}", username);
-            } catch (Exception e) {
-                log.error("Error during authentication: {}", e.getMessage());
+        // Каждый проверенный токен получает outcome, поэтому таймер пишется для всех попавших в выборку
+        if (claims != null) {
+            String username = claims.getSubject();
+            if (!StringUtils.hasText(username)) {
+                // Подпись верна, но без sub - аутентифицировать некого
+                outcome = AuthMetrics.MALFORMED;
+            } else if (SecurityContextHolder.getContext().getAuthentication() != null) {
+                outcome = AuthMetrics.ALREADY_AUTHENTICATED;
+            } else if (tokenRevocationService.isRevoked(claims)) {
+                log.debug("Revoked JWT presented for user: {}", username);
+                response.addHeader("JWT-Error", "Revoked token");
+                outcome = AuthMetrics.REVOKED;
+            } else if (statelessPrincipal) {
+                outcome = authenticateFromClaims(claims, request);
+            } else {
+                outcome = authenticateFromUserDetails(claims, request);
             }
         }
 
+        if (sample != null) {
+            authMetrics.stop(sample, "auth.jwt.filter", "outcome", outcome);
+        }
+
         filterChain.doFilter(request, response);
     }
 
+    // Principal из проверенных claims: подпись и exp уже проверены JwtUtil
+    private String authenticateFromClaims(Claims claims, HttpServletRequest request) {
+        if (JwtUtil.isExpired(claims)) {
+            log.debug("JWT token validation failed for user: {}", claims.getSubject());
+            return AuthMetrics.EXPIRED;
+        }
+
+        setAuthentication(principalFromClaims(claims), request);
+        return AuthMetrics.SUCCESS;
+    }
+
+    // Токены с claim uid дают тот же CustomUserDetails, что и путь через БД
+    private static UserDetails principalFromClaims(Claims claims) {
+        Collection<? extends GrantedAuthority> authorities = extractAuthorities(claims);
+        Number uid = claims.get("uid", Number.class);
+        if (uid != null && authorities.size() == 1) {
+            String authority = authorities.iterator().next().getAuthority();
+            UserRole role = authority.startsWith("ROLE_") ? roleOf(authority.substring("ROLE_".length())) : null;
+            if (role != null) {
+                return new CustomUserDetails(uid.longValue(), claims.getSubject(), null, role);
+            }
+        }
+        return org.springframework.security.core.userdetails.User.builder()
+                .username(claims.getSubject())
+                .password("")
+                .authorities(authorities)
+                .build();
+    }
+
+    // Роль из токена, выпущенного до переименования ролей, не роняет запрос:
+    // такой токен получает общий principal с authorities как есть
+    private static UserRole roleOf(String name) {
+        for (UserRole role : UserRole.values()) {
+            if (role.name().equals(name)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    // Principal из БД; claims уже проверены JwtUtil - токен повторно не разбирается
+    private String authenticateFromUserDetails(Claims claims, HttpServletRequest request) {
+        String username = claims.getSubject();
+        if (JwtUtil.isExpired(claims)) {
+            log.debug("JWT token validation failed for user: {}", username);
+            return AuthMetrics.EXPIRED;
+        }
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+
+            if (!username.equals(userDetails.getUsername())) {
+                log.debug("JWT subject {} does not match user {}", username, userDetails.getUsername());
+                return AuthMetrics.SUBJECT_MISMATCH;
+            }
+            setAuthentication(userDetails, request);
+            return AuthMetrics.SUCCESS;
+        } catch (UsernameNotFoundException e) {
+            log.warn("User not found: {}", username);
+            return AuthMetrics.NOT_FOUND;
+        } catch (Exception e) {
+            log.error("Error during authentication: {}", e.getMessage());
+            return AuthMetrics.ERROR;
+        }
+    }
+
+    private void setAuthentication(UserDetails userDetails, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        log.debug("User '{}' authenticated successfully", userDetails.getUsername());
+    }
+
+    private static Collection<? extends GrantedAuthority> extractAuthorities(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream()
+                .map(String::valueOf)
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         // Можно исключить определенные пути от фильтрации JWT
         String path = request.getRequestURI();
+        // /media/** - публичные картинки, одинаковые для всех: токен не нужен и не разбирается
         return path.startsWith("/api/auth/") ||
                 path.startsWith("/public/") ||
+                path.startsWith("/media/") ||
                 path.equals("/login") ||
                 path.equals("/register");
     }
@@ -1,84 +1,266 @@
 package com.example.terrace.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
 
-    private static final long EXPIRATION_TIME = 24 * 60 * 60 * 1000; // 24 часа
+    @Value("${jwt.negative-cache.max-size:10000}")
+    private long negativeCacheMaxSize;
 
-    // Кэшируем ключ после первого получения
-    private SecretKey signingKey;
+    @Value("${jwt.negative-cache.ttl:5m}")
+    private Duration negativeCacheTtl;
 
-    private SecretKey getSigningKey() {
-        if (this.signingKey == null) {
-            byte[] keyBytes = Decoders.BASE64.decode(secret);
-            this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+    static final long EXPIRATION_TIME = 24 * 60 * 60 * 1000; // 24 часа
+
+    // Наши токены заметно короче; длиннее - заведомо чужие
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    private static final String VALIDATION_METRIC = "auth.jwt.validation";
+
+    private final AuthMetrics authMetrics;
+    private final JwtKeyRing keyRing;
+
+    // Парсер потокобезопасен - собираем один раз, а не на каждый запрос
+    private JwtParser jwtParser;
+
+    // Уже проверенные токены: ключ - SHA-256 токена, запись удаляется в момент exp
+    private Cache<String, Claims> verifiedTokens;
+
+    // Недавно отклонённые токены: повторная подделка/мусор не доходит до проверки подписи
+    private Cache<String, JwtValidationResult> rejectedTokens;
+
+    @PostConstruct
+    void init() {
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return resolveVerificationKey(header);
+                    }
+                })
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.rejectedTokens = Caffeine.newBuilder()
+                .maximumSize(negativeCacheMaxSize)
+                .expireAfterWrite(negativeCacheTtl)
+                .build();
+    }
+
+    // Ключ по kid; alg из заголовка обязан совпадать с алгоритмом ключа
+    private Key resolveVerificationKey(JwsHeader header) {
+        JwtKeyRing.RingKey key = keyRing.verificationKey(header.getKeyId());
+        if (key == null && header.getKeyId() == null) {
+            throw new SignatureException("JWT has no key id and the static key is retired");
+        }
+        if (key == null) {
+            throw new UnknownKeyIdException(header.getKeyId());
+        }
+        if (!key.algorithm().equals(header.getAlgorithm())) {
+            throw new SignatureException("JWT algorithm does not match key " + key.kid());
+        }
+        return key.verificationKey();
+    }
+
+    private static long remainingNanos(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return 0;
+        }
+        long millis = expiration.getTime() - System.currentTimeMillis();
+        return Math.max(0, TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
-        return this.signingKey;
     }
 
     public String generateToken(UserDetails userDetails) {
+        Timer.Sample sample = authMetrics.start();
         Map<String, Object> claims = new HashMap<>();
         claims.put("roles", userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList()));
+        if (userDetails instanceof CustomUserDetails customUserDetails) {
+            claims.put("uid", customUserDetails.getId());
+        }
 
-        return createToken(claims, userDetails.getUsername());
+        String token = createToken(claims, userDetails.getUsername());
+        authMetrics.stop(sample, "auth.jwt.generate");
+        return token;
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder()
-                .setClaims(claims)  // Используем setClaims() вместо claims()
-                .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)  // Используем SignatureAlgorithm
-                .compact();
+        JwtKeyRing.RingKey key = keyRing.activeKey();
+        JwtBuilder builder = Jwts.builder()
+                .claims(claims)
+                .subject(subject)
+                .id(UUID.randomUUID().toString())  // jti - для отзыва отдельного токена
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME));
+        return key.signWith(builder).compact();  // Активный ключ связки, kid в заголовке
     }
 
-    // Совместимый API для JJWT 0.12.5
-    private Claims extractAllClaims(String token) {
+    /**
+     * Проверка без исключений и логов на запрос - для JwtRequestFilter.
+     * Дешёвые отказы идут до криптографии: структура токена и недавно отклонённые токены
+     */
+    public JwtValidationResult validate(String token) {
+        if (!hasJwsStructure(token)) {
+            authMetrics.countSampled(VALIDATION_METRIC, "outcome", AuthMetrics.MALFORMED, "stage", "precheck");
+            return JwtValidationResult.MALFORMED;
+        }
+
+        String key = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            JwtValidationResult result = isExpired(cached)
+                    ? JwtValidationResult.EXPIRED
+                    : new JwtValidationResult.Valid(cached);
+            authMetrics.countSampled(VALIDATION_METRIC, "outcome", outcomeOf(result), "stage", "cache");
+            return result;
+        }
+
+        JwtValidationResult rejected = rejectedTokens.getIfPresent(key);
+        if (rejected != null) {
+            authMetrics.countSampled(VALIDATION_METRIC, "outcome", outcomeOf(rejected), "stage", "negative_cache");
+            return rejected;
+        }
+
+        return verify(token, key);
+    }
+
+    // Полная проверка подписи; результат кэшируется в обе стороны
+    private JwtValidationResult verify(String token, String key) {
+        Timer.Sample sample = authMetrics.start();
+        JwtValidationResult result;
         try {
-            return Jwts.parserBuilder()  // Используем parserBuilder() для 0.12.5
-                    .setSigningKey(getSigningKey())  // Используем setSigningKey()
-                    .build()
-                    .parseClaimsJws(token)  // Используем parseClaimsJws()
-                    .getBody();  // Используем getBody()
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            verifiedTokens.put(key, claims);
+            result = new JwtValidationResult.Valid(claims);
         } catch (ExpiredJwtException e) {
-            log.warn("JWT token is expired: {}", e.getMessage());
-            throw e;
-        } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
-            throw e;
-        } catch (MalformedJwtException e) {
-            log.error("JWT token is malformed: {}", e.getMessage());
-            throw e;
+            result = JwtValidationResult.EXPIRED;
+        } catch (UnknownKeyIdException e) {
+            // Не кэшируем: kid может оказаться ключом, который этот узел ещё не загрузил
+            authMetrics.stop(sample, "auth.jwt.verify", "outcome", AuthMetrics.BAD_SIGNATURE);
+            return JwtValidationResult.BAD_SIGNATURE;
         } catch (SecurityException e) {
-            log.error("JWT signature validation failed: {}", e.getMessage());
-            throw e;
-        } catch (IllegalArgumentException e) {
-            log.error("JWT token compact of handler are invalid: {}", e.getMessage());
-            throw e;
+            result = JwtValidationResult.BAD_SIGNATURE;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("JWT rejected: {}", e.getMessage());
+            result = JwtValidationResult.MALFORMED;
+        }
+
+        if (!(result instanceof JwtValidationResult.Valid)) {
+            rejectedTokens.put(key, result);
+        }
+        authMetrics.stop(sample, "auth.jwt.verify", "outcome", outcomeOf(result));
+        return result;
+    }
+
+    // kid не найден в связке даже после перечитывания ключей
+    private static final class UnknownKeyIdException extends SecurityException {
+        UnknownKeyIdException(String kid) {
+            super("Unknown JWT key id: " + kid);
+        }
+    }
+
+    // header.payload.signature из base64url; иначе до парсера не доходим
+    private static boolean hasJwsStructure(String token) {
+        int length = token.length();
+        if (length == 0 || length > MAX_TOKEN_LENGTH) {
+            return false;
         }
+        int dots = 0;
+        int segmentLength = 0;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++dots > 2) {
+                    return false;
+                }
+                segmentLength = 0;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_') {
+                segmentLength++;
+            } else {
+                return false;
+            }
+        }
+        return dots == 2 && segmentLength > 0;
+    }
+
+    private static String outcomeOf(JwtValidationResult result) {
+        return switch (result) {
+            case JwtValidationResult.Valid valid -> AuthMetrics.SUCCESS;
+            case JwtValidationResult.Expired expired -> AuthMetrics.EXPIRED;
+            case JwtValidationResult.Malformed malformed -> AuthMetrics.MALFORMED;
+            case JwtValidationResult.BadSignature badSignature -> AuthMetrics.BAD_SIGNATURE;
+        };
+    }
+
+    // Для вызовов вне фильтра: недействительный токен - исключение
+    private Claims extractAllClaims(String token) {
+        if (validate(token) instanceof JwtValidationResult.Valid valid) {
+            return valid.claims();
+        }
+        throw new JwtException("JWT token is invalid");
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -95,29 +277,22 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = extractUsername(token);
-            return (username != null &&
-                    username.equals(userDetails.getUsername()) &&
-                    !isTokenExpired(token));
-        } catch (Exception e) {
-            log.error("Token validation failed: {}", e.getMessage());
+        if (!(validate(token) instanceof JwtValidationResult.Valid valid)) {
             return false;
         }
+        final String username = valid.claims().getSubject();
+        return (username != null &&
+                username.equals(userDetails.getUsername()) &&
+                !isExpired(valid.claims()));
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public static boolean isExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     // Дополнительный метод для проверки валидности токена без UserDetails
     public Boolean isTokenValid(String token) {
-        try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
+        return validate(token) instanceof JwtValidationResult.Valid valid && !isExpired(valid.claims());
     }
 
     // Дополнительные полезные методы
@@ -0,0 +1,25 @@
+package com.example.terrace.util;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Результат проверки JWT без исключений: фильтр разбирает его через switch
+ */
+public sealed interface JwtValidationResult {
+
+    Malformed MALFORMED = new Malformed();
+    BadSignature BAD_SIGNATURE = new BadSignature();
+    Expired EXPIRED = new Expired();
+
+    record Valid(Claims claims) implements JwtValidationResult {
+    }
+
+    record Expired() implements JwtValidationResult {
+    }
+
+    record Malformed() implements JwtValidationResult {
+    }
+
+    record BadSignature() implements JwtValidationResult {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.terrace.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты POST на вход до цепочки Spring Security:
+ * отклонённая попытка не доходит до AuthService и не тратит хэширование пароля.
+ * GET на lookup-paths (проверка занятости email) ограничивается своей корзиной по IP
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String EMAIL_PARAMETER = "email";
+    private static final String LOGIN_REJECTED = "Too many login attempts, please try again later";
+
+    private final LoginRateLimiter rateLimiter;
+    private final Counter ipRejections;
+    private final Counter emailRejections;
+    private final Counter lookupRejections;
+
+    @Value("${security.login-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.login-rate-limit.paths:/login}")
+    private List<String> paths;
+
+    @Value("${security.login-rate-limit.lookup-paths:/api/auth/email-available}")
+    private List<String> lookupPaths;
+
+    public LoginRateLimitFilter(LoginRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.ipRejections = meterRegistry.counter("auth.login.rate_limited", "limit", "ip");
+        this.emailRejections = meterRegistry.counter("auth.login.rate_limited", "limit", "email");
+        this.lookupRejections = meterRegistry.counter("auth.login.rate_limited", "limit", "lookup");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        if (isLookup(request)) {
+            long waitNanos = rateLimiter.tryAcquireLookup(request.getRemoteAddr());
+            if (waitNanos > 0) {
+                lookupRejections.increment();
+                reject(response, waitNanos, "Too many requests, please try again later");
+                return;
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = rateLimiter.tryAcquireIp(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            ipRejections.increment();
+            reject(response, waitNanos, LOGIN_REJECTED);
+            return;
+        }
+
+        // Параметр формы; для JSON-тела ограничение только по IP
+        String email = request.getParameter(EMAIL_PARAMETER);
+        if (StringUtils.hasText(email)) {
+            waitNanos = rateLimiter.tryAcquireEmail(email);
+            if (waitNanos > 0) {
+                emailRejections.increment();
+                reject(response, waitNanos, LOGIN_REJECTED);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        return !isLookup(request)
+                && !("POST".equals(request.getMethod()) && paths.contains(request.getRequestURI()));
+    }
+
+    private boolean isLookup(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) && lookupPaths.contains(request.getRequestURI());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.terrace.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket для попыток входа: отдельно по IP и по email, и отдельная корзина по IP
+ * для проверки занятости email (/api/auth/email-available), чтобы её нельзя было
+ * использовать для массового перебора зарегистрированных адресов.
+ * Состояние корзины - один long (GCRA: "теоретическое время прихода" следующего запроса),
+ * обновляется CAS без блокировок. Отказ ничего не пишет и не аллоцирует.
+ * Карта корзин ограничена по размеру, простаивающие корзины вытесняются.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Buckets byIp;
+    private final Buckets byEmail;
+    private final Buckets lookupsByIp;
+
+    public LoginRateLimiter(@Value("${security.login-rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${security.login-rate-limit.ip.per-minute:20}") int ipPerMinute,
+                            @Value("${security.login-rate-limit.email.capacity:5}") int emailCapacity,
+                            @Value("${security.login-rate-limit.email.per-minute:5}") int emailPerMinute,
+                            @Value("${security.login-rate-limit.lookup.capacity:30}") int lookupCapacity,
+                            @Value("${security.login-rate-limit.lookup.per-minute:30}") int lookupPerMinute,
+                            @Value("${security.login-rate-limit.max-keys:100000}") long maxKeys,
+                            @Value("${security.login-rate-limit.idle-timeout:10m}") Duration idleTimeout) {
+        this.byIp = new Buckets(ipCapacity, ipPerMinute, maxKeys, idleTimeout);
+        this.byEmail = new Buckets(emailCapacity, emailPerMinute, maxKeys, idleTimeout);
+        this.lookupsByIp = new Buckets(lookupCapacity, lookupPerMinute, maxKeys, idleTimeout);
+    }
+
+    /**
+     * @return 0 - попытка разрешена, иначе сколько наносекунд ждать до следующей
+     */
+    public long tryAcquireIp(String ip) {
+        return byIp.tryAcquire(ip);
+    }
+
+    public long tryAcquireEmail(String email) {
+        // toLowerCase возвращает ту же строку, если менять нечего
+        return byEmail.tryAcquire(email.toLowerCase(Locale.ROOT));
+    }
+
+    public long tryAcquireLookup(String ip) {
+        return lookupsByIp.tryAcquire(ip);
+    }
+
+    static final class Buckets {
+
+        // Отсчёт от старта, чтобы 0 в новой корзине означал "полная"
+        private static final long ORIGIN = System.nanoTime() - 1;
+
+        private final long interval;   // нс на один токен
+        private final long burst;      // ёмкость корзины в нс (capacity * interval)
+        private final Cache<String, AtomicLong> buckets;
+
+        Buckets(int capacity, int perMinute, long maxKeys, Duration idleTimeout) {
+            if (capacity <= 0 || perMinute <= 0) {
+                throw new IllegalArgumentException("Rate limit capacity and rate must be positive");
+            }
+            this.interval = TimeUnit.MINUTES.toNanos(1) / perMinute;
+            this.burst = interval * capacity;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(idleTimeout)
+                    .build();
+        }
+
+        long tryAcquire(String key) {
+            AtomicLong state = buckets.get(key, k -> new AtomicLong());
+            long now = System.nanoTime() - ORIGIN;
+            while (true) {
+                long tat = state.get();
+                long next = Math.max(tat, now) + interval;
+                long excess = next - now - burst;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (state.compareAndSet(tat, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.terrace.util;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Выполняет encode/matches на отдельном ограниченном пуле.
+ * Потоки запросов (виртуальные) только ждут результата, а при переполненной
+ * очереди сразу получают HashingCapacityExceededException.
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ExecutorService executor;
+    private final AuthMetrics authMetrics;
+
+    public OffloadingPasswordEncoder(PasswordEncoder delegate, ExecutorService executor, AuthMetrics authMetrics) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.authMetrics = authMetrics;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Только разбор префикса/параметров хэша - выполняем на месте
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // auth.password.wait - ожидание в очереди пула, auth.password.hash - чистое время хэширования
+    private <T> T submit(String operation, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Callable<T> timed = () -> {
+            long startedAt = System.nanoTime();
+            authMetrics.record("auth.password.wait", startedAt - submittedAt, "operation", operation);
+            try {
+                return task.call();
+            } finally {
+                authMetrics.record("auth.password.hash", System.nanoTime() - startedAt, "operation", operation);
+            }
+        };
+
+        Future<T> future;
+        try {
+            future = executor.submit(timed);
+        } catch (RejectedExecutionException e) {
+            throw new HashingCapacityExceededException("Password hashing queue is full");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.terrace.util;
+
+import com.example.terrace.service.PageCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Отдаёт анонимные страницы из PageCache буфером вместо рендера Thymeleaf.
+ * Запросы с jwt-token, Authorization или параметрами идут мимо кэша.
+ * Стоит в цепочке Spring Security сразу за HeaderWriterFilter: ответ из кэша получает
+ * те же заголовки безопасности, что и отрендеренный, а остальные фильтры цепочки
+ * (JWT, авторизация) попадание в кэш не проходит.
+ */
+@Component
+@RequiredArgsConstructor
+public class PageCacheFilter extends OncePerRequestFilter {
+
+    private static final String JWT_COOKIE_NAME = "jwt-token";
+
+    private final PageCache pageCache;
+
+    @Value("${page-cache.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        String path = request.getRequestURI();
+        PageCache.Entry entry = pageCache.get(path);
+        if (entry != null) {
+            writeEntry(entry, request, response);
+            return;
+        }
+
+        long version = pageCache.contentVersion(path);
+        // Те же заголовки, что у ответа из кэша: иначе промах получил бы no-store от Spring Security
+        setCacheHeaders(response);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        String contentType = wrapper.getContentType();
+        if ("GET".equals(request.getMethod())
+                && wrapper.getStatus() == HttpServletResponse.SC_OK
+                && contentType != null && contentType.startsWith("text/html")) {
+            PageCache.Entry stored = pageCache.put(path, version, contentType, wrapper.getContentAsByteArray());
+            wrapper.setHeader(HttpHeaders.ETAG, stored.etag());
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void writeEntry(PageCache.Entry entry, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        setCacheHeaders(response);
+
+        if (entry.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = entry.body();
+        if (acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            body = entry.gzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType());
+        response.setContentLength(body.length);
+        if (!"HEAD".equals(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private static void setCacheHeaders(HttpServletResponse response) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+    }
+
+    /**
+     * gzip принимается, если указан с q > 0 или покрыт "*" с q > 0 (RFC 9110, 12.5.3)
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase();
+            double quality = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+            return true;
+        }
+        if (request.getQueryString() != null || !isCacheablePath(request.getRequestURI())) {
+            return true;
+        }
+        // Авторизованные запросы всегда рендерятся
+        if (StringUtils.hasText(request.getHeader(HttpHeaders.AUTHORIZATION))) {
+            return true;
+        }
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (JWT_COOKIE_NAME.equals(cookie.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCacheablePath(String path) {
+        return path.equals("/") || path.equals("/home")
+                || (path.startsWith("/menu/") && path.indexOf('/', "/menu/".length()) < 0);
+    }
+}
@@ -1,15 +1,95 @@
 package com.example.terrace.util;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Хэширование паролей с настраиваемой стоимостью.
+ * Хэши с устаревшими параметрами перехэшируются при успешном логине
+ * (DelegatingPasswordEncoder.upgradeEncoding + UserDetailsPasswordService).
+ * Само хэширование вынесено из потоков запросов на ограниченный пул.
+ */
 @Configuration
 public class PasswordEncoderConfig {
 
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+
+    // Алгоритм для новых хэшей: bcrypt или argon2
+    @Value("${security.password.encoder:bcrypt}")
+    private String encoderId;
+
+    @Value("${security.password.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${security.password.argon2.salt-length:16}")
+    private int argon2SaltLength;
+
+    @Value("${security.password.argon2.hash-length:32}")
+    private int argon2HashLength;
+
+    @Value("${security.password.argon2.parallelism:1}")
+    private int argon2Parallelism;
+
+    @Value("${security.password.argon2.memory-kb:19456}")
+    private int argon2MemoryKb;
+
+    @Value("${security.password.argon2.iterations:2}")
+    private int argon2Iterations;
+
+    // Размер пула хэширования (0 - по числу ядер) и лимит очереди
+    @Value("${security.password.hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${security.password.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordHashingExecutor() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashingQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ExecutorService passwordHashingExecutor, AuthMetrics authMetrics) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(ARGON2, new Argon2PasswordEncoder(
+                argon2SaltLength, argon2HashLength, argon2Parallelism, argon2MemoryKb, argon2Iterations));
+
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalStateException("Unknown password encoder: " + encoderId);
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(encoderId, encoders);
+        // Старые хэши сохранены без префикса {id} - это bcrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new OffloadingPasswordEncoder(encoder, passwordHashingExecutor, authMetrics);
     }
-}
\ No newline at end of file
+}
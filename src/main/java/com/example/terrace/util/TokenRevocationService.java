@@ -0,0 +1,152 @@
+package com.example.terrace.util;
+
+import com.example.terrace.event.UserChangedEvent;
+import com.example.terrace.repository.RevokedSubjectRepository;
+import com.example.terrace.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отзыв токенов без обращения к БД на запрос.
+ * Отдельные токены отзываются по jti: набор в памяти, копия в revoked_tokens.
+ * Для пользователя целиком хранится момент, до которого все его токены недействительны
+ * (копия в revoked_subjects). Обе таблицы переживают рестарт, другие узлы
+ * подтягивают новые записи по расписанию.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RevokedSubjectRepository revokedSubjectRepository;
+
+    // Запас на расхождение часов узлов при синхронизации
+    private final Duration syncOverlap;
+
+    // subject -> момент отзыва (мс); после EXPIRATION_TIME запись не нужна
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    // jti -> exp токена (мс); после exp запись не нужна - токен и так не пройдёт проверку
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private volatile Instant lastSync;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  RevokedSubjectRepository revokedSubjectRepository,
+                                  @Value("${jwt.revocation.sync-overlap:5s}") Duration syncOverlap) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revokedSubjectRepository = revokedSubjectRepository;
+        this.syncOverlap = syncOverlap;
+    }
+
+    @PostConstruct
+    void load() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findActive(now)
+                .forEach(token -> revokedTokens.put(token.getJti(), token.getExpiresAt().toEpochMilli()));
+        revokedSubjectRepository.findRevokedSince(now.minusMillis(JwtUtil.EXPIRATION_TIME))
+                .forEach(subject -> revokedBefore.merge(subject.getSubject(),
+                        subject.getRevokedBefore().toEpochMilli(), Math::max));
+        lastSync = now;
+        log.info("Loaded {} revoked tokens and {} revoked users", revokedTokens.size(), revokedBefore.size());
+    }
+
+    /**
+     * Отзывает все ранее выданные токены пользователя (смена роли, блокировка и т.п.)
+     */
+    @Transactional
+    public void revokeAllFor(String subject) {
+        // iat в токене с точностью до секунды: токен, выданный в ту же секунду
+        // (например, сразу после смены роли), остаётся действительным
+        Instant cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        revokedBefore.merge(subject, cutoff.toEpochMilli(), Math::max);
+        revokedSubjectRepository.upsert(subject, cutoff);
+        log.info("All tokens revoked for user: {}", subject);
+    }
+
+    /**
+     * Смена пароля/роли или удаление пользователя: выданные раньше токены больше не действуют
+     * (в т.ч. в stateless-режиме, где роль берётся из токена). Событие приходит после коммита -
+     * запись идёт в своей транзакции
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserChanged(UserChangedEvent event) {
+        revokeAllFor(event.email());
+    }
+
+    /**
+     * Отзывает один токен (logout). Токены без jti (выпущенные до его появления)
+     * отзываются вместе со всеми токенами пользователя
+     */
+    @Transactional
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            revokeAllFor(claims.getSubject());
+            return;
+        }
+        Date expiration = claims.getExpiration();
+        revokedTokens.put(jti, expiration.getTime());
+        revokedTokenRepository.insertIfAbsent(jti, claims.getSubject(),
+                expiration.toInstant(), Instant.now());
+        log.info("Token {} revoked for user: {}", jti, claims.getSubject());
+    }
+
+    /**
+     * Проверка за O(1): токен отозван по jti или выпущен раньше момента отзыва пользователя
+     */
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti != null && revokedTokens.containsKey(jti)) {
+            return true;
+        }
+        Long cutoff = revokedBefore.get(claims.getSubject());
+        if (cutoff == null) {
+            return false;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null || issuedAt.getTime() < cutoff;
+    }
+
+    /**
+     * Подтягивает отзывы других узлов и удаляет записи истёкших токенов
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:30000}")
+    @Transactional
+    public void sync() {
+        Instant now = Instant.now();
+        Instant since = lastSync.minus(syncOverlap);
+        revokedTokenRepository.findActiveRevokedSince(since, now)
+                .forEach(token -> revokedTokens.putIfAbsent(token.getJti(), token.getExpiresAt().toEpochMilli()));
+        revokedSubjectRepository.findRevokedSince(since)
+                .forEach(subject -> revokedBefore.merge(subject.getSubject(),
+                        subject.getRevokedBefore().toEpochMilli(), Math::max));
+        lastSync = now;
+
+        // Токены, выпущенные до этого момента, уже истекли - отзыв пользователя их не касается
+        Instant oldestLiveToken = now.minusMillis(JwtUtil.EXPIRATION_TIME);
+        long nowMillis = now.toEpochMilli();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+        revokedBefore.values().removeIf(cutoff -> cutoff <= oldestLiveToken.toEpochMilli());
+        int deleted = revokedTokenRepository.deleteExpired(now)
+                + revokedSubjectRepository.deleteRevokedBefore(oldestLiveToken);
+        if (deleted > 0) {
+            log.debug("Purged {} expired revocations", deleted);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+-- Базовая схема: то, что раньше создавал ddl-auto=update.
+-- Только IF NOT EXISTS: на БД, созданной через ddl-auto=update (baseline - версия 0),
+-- существующие таблицы не трогаются, недостающие создаются.
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    role       VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'ADMIN')),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE SEQUENCE IF NOT EXISTS reservations_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reservations (
+    id               BIGINT PRIMARY KEY,
+    reference        VARCHAR(36)  NOT NULL,
+    name             VARCHAR(100) NOT NULL,
+    phone            VARCHAR(30)  NOT NULL,
+    reservation_date DATE         NOT NULL,
+    reservation_time TIME(6)      NOT NULL,
+    guests           INTEGER      NOT NULL,
+    occasion         VARCHAR(30),
+    requests         VARCHAR(1000),
+    status           VARCHAR(255) NOT NULL CHECK (status IN ('CONFIRMED', 'CANCELLED')),
+    created_at       TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_reservations_reference UNIQUE (reference)
+);
+
+CREATE INDEX IF NOT EXISTS idx_reservations_date_time ON reservations (reservation_date, reservation_time);
+
+CREATE TABLE IF NOT EXISTS reservation_slots (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    slot_date DATE    NOT NULL,
+    slot_time TIME(6) NOT NULL,
+    capacity  INTEGER NOT NULL,
+    booked    INTEGER NOT NULL,
+    CONSTRAINT uk_reservation_slots_date_time UNIQUE (slot_date, slot_time)
+);
+
+CREATE TABLE IF NOT EXISTS menu_categories (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    slug        VARCHAR(50)  NOT NULL,
+    title       VARCHAR(100) NOT NULL,
+    description VARCHAR(1000),
+    sort_order  INTEGER      NOT NULL,
+    CONSTRAINT uk_menu_categories_slug UNIQUE (slug)
+);
+
+CREATE TABLE IF NOT EXISTS menu_items (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    category_id BIGINT         NOT NULL REFERENCES menu_categories (id),
+    name        VARCHAR(150)   NOT NULL,
+    description VARCHAR(1000),
+    price       NUMERIC(10, 2) NOT NULL,
+    sort_order  INTEGER        NOT NULL,
+    available   BOOLEAN        NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_menu_items_category ON menu_items (category_id);
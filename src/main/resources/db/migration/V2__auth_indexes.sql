@@ -0,0 +1,26 @@
+-- Индексы для запросов логина и регистрации (UserRepository).
+-- Email уникален без учёта регистра. Перед применением на существующей БД проверить дубли:
+--   SELECT lower(email), count(*) FROM users GROUP BY 1 HAVING count(*) > 1;
+
+-- INCLUDE кладёт в индекс все поля findCredentialsByEmail/existsByEmail:
+-- EXPLAIN показывает Index Only Scan using uk_users_email_lower
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email_lower
+    ON users (lower(email)) INCLUDE (id, email, password, role);
+
+-- Прежнее ограничение UNIQUE (email) заменено индексом выше. У БД, созданных
+-- через ddl-auto=update, имя ограничения сгенерировано Hibernate, поэтому ищем по колонке
+DO $$
+DECLARE
+    constraint_name TEXT;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+        WHERE c.conrelid = 'users'::regclass
+          AND c.contype = 'u'
+          AND c.conkey = ARRAY[(SELECT a.attnum FROM pg_attribute a
+                                WHERE a.attrelid = 'users'::regclass AND a.attname = 'email')]
+    LOOP
+        EXECUTE format('ALTER TABLE users DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
@@ -0,0 +1,12 @@
+-- Отозванные JWT (logout). Строки живут до expires_at токена,
+-- узлы подгружают новые отзывы по revoked_at.
+-- Моменты - timestamptz: узлы в разных часовых поясах и переход
+-- на летнее время не сдвигают окно синхронизации и очистку
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti        VARCHAR(36)    PRIMARY KEY,
+    subject    VARCHAR(255)   NOT NULL,
+    expires_at TIMESTAMPTZ(6) NOT NULL,
+    revoked_at TIMESTAMPTZ(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
@@ -0,0 +1,20 @@
+-- Связка ключей подписи JWT (ротация по расписанию, kid в заголовке токена).
+-- private_key зашифрован AES-GCM под jwt.keys.encryption-key из конфигурации:
+-- дамп таблицы без этого ключа не даёт подписать токен.
+-- Следующий ключ публикуется заранее и подписывает только с activates_at: к этому
+-- моменту его уже перечитали все узлы и внешние потребители JWKS
+CREATE TABLE IF NOT EXISTS jwt_signing_keys (
+    kid          VARCHAR(36)    PRIMARY KEY,
+    algorithm    VARCHAR(10)    NOT NULL,
+    private_key  TEXT           NOT NULL,
+    public_key   TEXT,
+    created_at   TIMESTAMPTZ(6) NOT NULL,
+    activates_at TIMESTAMPTZ(6) NOT NULL
+);
+
+-- Момент включения ротации (одна строка): после него ключ из jwt.secret не подписывает
+-- и выводится, когда истекут выпущенные им токены
+CREATE TABLE IF NOT EXISTS jwt_key_ring_state (
+    id                  INTEGER        PRIMARY KEY CHECK (id = 1),
+    rotation_enabled_at TIMESTAMPTZ(6) NOT NULL
+);
@@ -0,0 +1,8 @@
+-- Отзыв всех токенов пользователя (смена роли/пароля, logout токеном без jti):
+-- недействительны токены, выпущенные раньше revoked_before
+CREATE TABLE IF NOT EXISTS revoked_subjects (
+    subject        VARCHAR(255)   PRIMARY KEY,
+    revoked_before TIMESTAMPTZ(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_subjects_revoked_before ON revoked_subjects (revoked_before);
@@ -0,0 +1,8 @@
+-- Версия меню (одна строка): растёт в транзакции каждой правки из админки.
+-- Узлы сверяют её по расписанию и пересобирают снимок MenuCatalog, если правка была на другом узле
+CREATE TABLE IF NOT EXISTS menu_version (
+    id      INTEGER PRIMARY KEY CHECK (id = 1),
+    version BIGINT  NOT NULL
+);
+
+INSERT INTO menu_version (id, version) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
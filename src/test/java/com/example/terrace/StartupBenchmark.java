@@ -0,0 +1,110 @@
+package com.example.terrace;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Время от запуска JVM до первого ответа 200 на GET / для вариантов старта:
+ * обычный jar, профиль lazy, AOT + CDS (mvn -Pfast-start package) и AOT + CDS + lazy.
+ * Варианты без собранных артефактов пропускаются.
+ * БД берётся из DB_URL/DB_USERNAME/DB_PASSWORD окружения, как при обычном запуске.
+ * Запуск (после mvn -Pfast-start package test-compile):
+ *   java -cp target/test-classes com.example.terrace.StartupBenchmark [target] [запусков]
+ * JMH здесь не подходит: измеряется старт отдельного процесса, а не метод в прогретой JVM.
+ */
+public class StartupBenchmark {
+
+    private static final String JAR = "Terrace_21-0.0.1-SNAPSHOT.jar";
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private record Variant(String name, Path workDir, List<String> args) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path target = Path.of(args.length > 0 ? args[0] : "target").toAbsolutePath();
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path application = target.resolve("application");
+
+        List<Variant> variants = new ArrayList<>();
+        if (Files.exists(target.resolve(JAR))) {
+            variants.add(new Variant("jar", target, List.of(java, "-jar", JAR)));
+            variants.add(new Variant("jar + lazy", target,
+                    List.of(java, "-jar", JAR, "--spring.profiles.active=lazy")));
+        } else {
+            System.out.println("skip jar: " + target.resolve(JAR) + " not found");
+        }
+        if (Files.exists(application.resolve("application.jsa"))) {
+            List<String> aotCds = List.of(java, "-XX:SharedArchiveFile=application.jsa",
+                    "-Dspring.aot.enabled=true", "-jar", JAR);
+            variants.add(new Variant("aot + cds", application, aotCds));
+            List<String> aotCdsLazy = new ArrayList<>(aotCds);
+            aotCdsLazy.add("--spring.profiles.active=lazy");
+            variants.add(new Variant("aot + cds + lazy", application, aotCdsLazy));
+        } else {
+            System.out.println("skip aot + cds: " + application.resolve("application.jsa") + " not found");
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        for (Variant variant : variants) {
+            long[] millis = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                millis[i] = timeToFirstOk(variant, client);
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-18s min %5d ms  median %5d ms  max %5d ms%n",
+                    variant.name(), millis[0], millis[runs / 2], millis[runs - 1]);
+        }
+    }
+
+    private static long timeToFirstOk(Variant variant, HttpClient client) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(variant.args());
+        command.add("--server.port=" + port);
+        URI uri = URI.create("http://localhost:" + port + "/");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(variant.workDir().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(variant.name() + ": process exited with " + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // Порт ещё не слушается
+                }
+                Thread.sleep(20);
+            }
+            throw new IllegalStateException(variant.name() + ": no 200 within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.terrace.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Учётная запись скрейпера /actuator/prometheus: только свои имя и пароль, пустой пароль - выключено
+ */
+class MetricsScrapeAuthenticationProviderTest {
+
+    @Test
+    void acceptsConfiguredCredentialsWithMetricsRole() {
+        MetricsScrapeAuthenticationProvider provider = new MetricsScrapeAuthenticationProvider("prometheus", "s3cret");
+
+        Authentication authentication = provider.authenticate(basic("prometheus", "s3cret"));
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(authentication.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_" + MetricsScrapeAuthenticationProvider.ROLE);
+    }
+
+    @Test
+    void rejectsWrongUsernameOrPassword() {
+        MetricsScrapeAuthenticationProvider provider = new MetricsScrapeAuthenticationProvider("prometheus", "s3cret");
+
+        assertThatThrownBy(() -> provider.authenticate(basic("prometheus", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> provider.authenticate(basic("admin", "s3cret")))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void emptyPasswordDisablesScraping() {
+        MetricsScrapeAuthenticationProvider provider = new MetricsScrapeAuthenticationProvider("prometheus", "");
+
+        assertThat(provider.isEnabled()).isFalse();
+        assertThatThrownBy(() -> provider.authenticate(basic("prometheus", "")))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    private static Authentication basic(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.terrace.config;
+
+import com.example.terrace.TestcontainersConfiguration;
+import com.example.terrace.service.PageCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Ответ из кэша страниц несёт те же заголовки безопасности, что и отрендеренный
+ * (PageCacheFilter стоит в цепочке после HeaderWriterFilter)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class PageCacheSecurityHeadersTests {
+
+    private static final List<String> SECURITY_HEADERS = List.of(
+            "X-Frame-Options",
+            "X-Content-Type-Options",
+            "X-XSS-Protection",
+            "Strict-Transport-Security",
+            HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.VARY);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @BeforeEach
+    void setUp() {
+        pageCache.invalidateAll();
+    }
+
+    @Test
+    void cacheHitCarriesTheSameSecurityHeadersAsMiss() throws Exception {
+        MockHttpServletResponse miss = home();
+        MockHttpServletResponse hit = home();
+
+        assertThat(hit.getStatus()).isEqualTo(200);
+        assertThat(hit.getHeader(HttpHeaders.ETAG)).isNotNull().isEqualTo(miss.getHeader(HttpHeaders.ETAG));
+        assertThat(miss.getHeader("X-Frame-Options")).isEqualTo("DENY");
+        assertThat(miss.getHeader("Strict-Transport-Security")).isNotNull();
+        for (String name : SECURITY_HEADERS) {
+            assertThat(hit.getHeaders(name)).as(name).isEqualTo(miss.getHeaders(name));
+        }
+    }
+
+    @Test
+    void notModifiedHitCarriesSecurityHeaders() throws Exception {
+        String etag = home().getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse notModified = mockMvc.perform(get("/").secure(true)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse();
+
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+        assertThat(notModified.getHeader("X-Frame-Options")).isEqualTo("DENY");
+    }
+
+    // HTTPS - чтобы Spring Security выставил и HSTS
+    private MockHttpServletResponse home() throws Exception {
+        return mockMvc.perform(get("/").secure(true).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+    }
+}
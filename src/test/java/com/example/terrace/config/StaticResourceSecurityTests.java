@@ -0,0 +1,86 @@
+package com.example.terrace.config;
+
+import com.example.terrace.TestcontainersConfiguration;
+import com.example.terrace.dto.user.LoginRequest;
+import com.example.terrace.dto.user.RegisterRequest;
+import com.example.terrace.service.AuthService;
+import com.example.terrace.service.RegisterService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Запросы статики с cookie jwt-token не разбирают токен и не ищут пользователя
+ * (auth.user.lookup не растёт). /media/** идёт через цепочку безопасности
+ * (заголовки безопасности на месте), но тоже без поиска пользователя
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class StaticResourceSecurityTests {
+
+    private static final String EMAIL = "assets@terrace.test";
+    private static final String PASSWORD = "assets-password";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RegisterService registerService;
+
+    @Autowired
+    private AuthService authService;
+
+    private Cookie jwtCookie;
+
+    @BeforeEach
+    void setUp() {
+        registerService.register(new RegisterRequest(EMAIL, PASSWORD, PASSWORD));
+        jwtCookie = new Cookie("jwt-token", authService.login(new LoginRequest(EMAIL, PASSWORD)).getToken());
+    }
+
+    @Test
+    void assetRequestsWithJwtCookieDoNoUserLookups() throws Exception {
+        long before = userLookups();
+
+        mockMvc.perform(get("/css/footer.css").cookie(jwtCookie)).andExpect(status().isOk());
+        mockMvc.perform(get("/images/Logo@21.jpeg").cookie(jwtCookie)).andExpect(status().isOk());
+        mockMvc.perform(get("/favicon.ico").cookie(jwtCookie));
+        // /media/** идёт через цепочку: заголовки безопасности на месте
+        mockMvc.perform(get("/media/hero/800.jpg").cookie(jwtCookie))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"));
+
+        assertThat(userLookups()).isEqualTo(before);
+    }
+
+    @Test
+    void protectedPageWithSameCookieLooksUpUser() throws Exception {
+        long before = userLookups();
+
+        mockMvc.perform(get("/dashboard").cookie(jwtCookie)).andExpect(status().isOk());
+
+        assertThat(userLookups()).isGreaterThan(before);
+    }
+
+    private long userLookups() {
+        return meterRegistry.find("auth.user.lookup").timers().stream().mapToLong(Timer::count).sum();
+    }
+}
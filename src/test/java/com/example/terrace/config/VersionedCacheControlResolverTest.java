@@ -0,0 +1,117 @@
+package com.example.terrace.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.CachingResourceResolver;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Цепочки /css/** и /images/** из WebConfig: immutable только у URL с отпечатком,
+ * тот же файл без отпечатка - короткий max-age
+ */
+class VersionedCacheControlResolverTest {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.maxAge(10, TimeUnit.MINUTES).cachePublic();
+    private static final byte[] CSS = "body{}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JPEG = "jpeg-bytes".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void onlyFingerprintedCssIsImmutable() throws Exception {
+        Files.write(dir.resolve("footer.css"), CSS);
+        Files.write(dir.resolve("footer.css.gz"), new byte[]{31, -117});
+        ResourceHttpRequestHandler handler = handler(
+                new CachingResourceResolver(new ConcurrentMapCache("css")),
+                new VersionedCacheControlResolver(IMMUTABLE),
+                new EncodedResourceResolver(),
+                new VersionResourceResolver().addContentVersionStrategy("/**"));
+        String versioned = "footer-" + DigestUtils.md5DigestAsHex(CSS) + ".css";
+
+        MockHttpServletResponse plain = get(handler, "footer.css", null);
+        MockHttpServletResponse fingerprinted = get(handler, versioned, null);
+        MockHttpServletResponse gzipped = get(handler, versioned, "gzip");
+
+        assertThat(plain.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo(REVALIDATE.getHeaderValue());
+        assertThat(fingerprinted.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo(IMMUTABLE.getHeaderValue());
+        assertThat(gzipped.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo(IMMUTABLE.getHeaderValue());
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
+    @Test
+    void fingerprintedImageStaysImmutableWhenServedAsWebp() throws Exception {
+        Files.write(dir.resolve("photo.jpg"), JPEG);
+        Files.write(dir.resolve("photo.jpg.webp"), "webp-bytes".getBytes(StandardCharsets.UTF_8));
+        ResourceHttpRequestHandler handler = handler(
+                new WebpAwareCachingResourceResolver(new ConcurrentMapCache("images")),
+                new VersionedCacheControlResolver(IMMUTABLE),
+                new WebpResourceResolver(),
+                new VersionResourceResolver().addContentVersionStrategy("/**"));
+        String versioned = "photo-" + DigestUtils.md5DigestAsHex(JPEG) + ".jpg";
+
+        assertThat(get(handler, versioned, null).getHeader(HttpHeaders.CACHE_CONTROL))
+                .isEqualTo(IMMUTABLE.getHeaderValue());
+        MockHttpServletResponse webp = get(handler, versioned, null, "image/webp,*/*");
+        assertThat(webp.getContentType()).isEqualTo("image/webp");
+        assertThat(webp.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo(IMMUTABLE.getHeaderValue());
+        assertThat(get(handler, "photo.jpg", null).getHeader(HttpHeaders.CACHE_CONTROL))
+                .isEqualTo(REVALIDATE.getHeaderValue());
+    }
+
+    private ResourceHttpRequestHandler handler(ResourceResolver... resolvers) throws Exception {
+        ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+        handler.setServletContext(new MockServletContext());
+        handler.setLocations(List.of(new FileSystemResource(dir.toString() + "/")));
+        handler.setCacheControl(REVALIDATE);
+        List<ResourceResolver> chain = new ArrayList<>(List.of(resolvers));
+        chain.add(new PathResourceResolver());
+        handler.setResourceResolvers(chain);
+        handler.afterPropertiesSet();
+        return handler;
+    }
+
+    private static MockHttpServletResponse get(ResourceHttpRequestHandler handler, String path,
+                                               String acceptEncoding) throws Exception {
+        return get(handler, path, acceptEncoding, null);
+    }
+
+    private static MockHttpServletResponse get(ResourceHttpRequestHandler handler, String path,
+                                               String acceptEncoding, String accept) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/" + path);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleRequest(request, response);
+        assertThat(response.getStatus()).isEqualTo(200);
+        return response;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.terrace.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Цепочка /images/** из WebConfig: WebP отдаётся только клиентам с Accept: image/webp,
+ * даже когда ответ уже лежит в кэше резолвера
+ */
+class WebpResourceResolverTest {
+
+    private static final byte[] JPEG = "jpeg-bytes".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] WEBP = "webp-bytes".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    private ResourceHttpRequestHandler handler;
+    private String versionedPath;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.write(dir.resolve("photo.jpg"), JPEG);
+        Files.write(dir.resolve("photo.jpg.webp"), WEBP);
+        versionedPath = "photo-" + DigestUtils.md5DigestAsHex(JPEG) + ".jpg";
+
+        handler = new ResourceHttpRequestHandler();
+        handler.setServletContext(new MockServletContext());
+        handler.setLocations(List.of(new FileSystemResource(dir.toString() + "/")));
+        handler.setResourceResolvers(List.of(
+                new WebpAwareCachingResourceResolver(new ConcurrentMapCache("test")),
+                new WebpResourceResolver(),
+                new VersionResourceResolver().addContentVersionStrategy("/**"),
+                new PathResourceResolver()));
+        handler.afterPropertiesSet();
+    }
+
+    @Test
+    void cachedWebpIsNotServedToClientsWithoutWebpSupport() throws Exception {
+        assertThat(get("image/avif,image/webp,*/*").getContentAsByteArray()).isEqualTo(WEBP);
+        assertThat(get("image/png,*/*").getContentAsByteArray()).isEqualTo(JPEG);
+        assertThat(get("image/avif,image/webp,*/*").getContentAsByteArray()).isEqualTo(WEBP);
+    }
+
+    private MockHttpServletResponse get(String accept) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/" + versionedPath);
+        request.addHeader(HttpHeaders.ACCEPT, accept);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, versionedPath);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleRequest(request, response);
+        assertThat(response.getStatus()).isEqualTo(200);
+        return response;
+    }
+}
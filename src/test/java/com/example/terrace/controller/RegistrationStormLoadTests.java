@@ -0,0 +1,140 @@
+package com.example.terrace.controller;
+
+import com.example.terrace.TestcontainersConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Нагрузочный тест: p99 главной страницы во время шторма регистраций.
+ * Хэширование идёт на маленьком пуле с короткой очередью, поэтому шторм
+ * получает быстрые 503, а рендер главной (кэш страниц выключен) не ждёт CPU хэширования
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "security.password.hashing.threads=2",
+        "security.password.hashing.queue-capacity=4",
+        "page-cache.enabled=false"
+})
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class RegistrationStormLoadTests {
+
+    private static final int HOME_CLIENTS = 8;
+    private static final int HOME_REQUESTS_PER_CLIENT = 100;
+    private static final int STORM_CLIENTS = 64;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void homePageP99StaysFlatDuringRegistrationStorm() throws Exception {
+        // Пул хэширования (2 потока) должен оставлять ядра рендеру; на 1-2 ядрах изоляции нет по определению
+        assumeTrue(Runtime.getRuntime().availableProcessors() >= 4, "needs at least 4 CPUs");
+        homePageLatencies(); // прогрев: шаблоны, пул соединений, JIT
+        long baselineP99 = p99(homePageLatencies());
+
+        AtomicBoolean storming = new AtomicBoolean(true);
+        AtomicInteger registered = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger sequence = new AtomicInteger();
+        List<Future<?>> storm = new ArrayList<>();
+        long stormP99;
+        try (ExecutorService stormExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < STORM_CLIENTS; i++) {
+                storm.add(stormExecutor.submit(() -> {
+                    while (storming.get()) {
+                        int status = register("storm-" + sequence.incrementAndGet() + "@terrace.test");
+                        if (status == 503) {
+                            rejected.incrementAndGet();
+                        } else if (status == 302) {
+                            registered.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            stormP99 = p99(homePageLatencies());
+            storming.set(false);
+            for (Future<?> future : storm) {
+                future.get();
+            }
+        }
+
+        log.info("Home page p99: baseline {} us, during storm {} us; registrations: {} accepted, {} rejected with 503",
+                baselineP99 / 1000, stormP99 / 1000, registered.get(), rejected.get());
+
+        assertThat(rejected.get()).as("backpressure engaged").isPositive();
+        assertThat(registered.get()).as("registrations still accepted").isPositive();
+        // Запас на шум общего CI; без разгрузки хэширования p99 растёт на порядки
+        assertThat(stormP99).isLessThan(baselineP99 * 5 + Duration.ofMillis(50).toNanos());
+    }
+
+    private List<Long> homePageLatencies() throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int i = 0; i < HOME_CLIENTS; i++) {
+                clients.add(executor.submit(() -> {
+                    for (int j = 0; j < HOME_REQUESTS_PER_CLIENT; j++) {
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(
+                                HttpRequest.newBuilder(uri("/")).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        latencies.add(System.nanoTime() - start);
+                        assertThat(response.statusCode()).isEqualTo(200);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : clients) {
+                future.get();
+            }
+        }
+        return latencies;
+    }
+
+    private int register(String email) throws Exception {
+        String form = "email=" + email + "&password=storm-password&confirmPassword=storm-password";
+        HttpRequest request = HttpRequest.newBuilder(uri("/register"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static long p99(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+}
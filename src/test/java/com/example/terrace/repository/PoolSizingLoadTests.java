@@ -0,0 +1,187 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.TestcontainersConfiguration;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Подбор spring.datasource.hikari.maximum-pool-size: одна и та же нагрузка (логин-поиск по
+ * lower(email) и короткая запись в транзакции) прогоняется на пулах разного размера с настройками
+ * из application.properties. Рекомендация - наименьший пул, дающий не меньше 90% лучшей пропускной
+ * способности, но не больше доли узла в max_connections Postgres.
+ * Число узлов: -Dpool-sizing.nodes=N (по умолчанию 2), например
+ *   mvn test -Dtest=PoolSizingLoadTests -Dpool-sizing.nodes=4
+ * Таблица и рекомендация пишутся в лог. На Testcontainers цифры ориентировочные - для
+ * окончательного выбора тот же тест запускают против БД, равной продовой по железу
+ */
+@Slf4j
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class PoolSizingLoadTests {
+
+    private static final int[] POOL_SIZES = {1, 2, 4, 8, 16, 32};
+    // Одновременных запросов на узел: больше любого пула, чтобы пул был узким местом
+    private static final int CLIENTS = 128;
+    private static final int USERS = 1_000;
+    private static final Duration WARMUP = Duration.ofSeconds(1);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(3);
+    // Соединения вне пулов приложения: миграции, psql, мониторинг
+    private static final int RESERVED_CONNECTIONS = 10;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private record Result(int poolSize, double opsPerSecond, long p99Micros, long acquireP99Micros) {
+    }
+
+    @Test
+    void recommendsPoolSizeForNodeCount() throws Exception {
+        int nodes = Integer.getInteger("pool-sizing.nodes", 2);
+        seedUsers();
+
+        List<Result> results = new ArrayList<>();
+        for (int poolSize : POOL_SIZES) {
+            results.add(measure(poolSize));
+        }
+
+        double best = results.stream().mapToDouble(Result::opsPerSecond).max().orElseThrow();
+        int knee = results.stream()
+                .filter(result -> result.opsPerSecond() >= best * 0.9)
+                .mapToInt(Result::poolSize)
+                .min()
+                .orElseThrow();
+        int maxConnections = Integer.parseInt(jdbcTemplate.queryForObject("show max_connections", String.class));
+        int superuserReserved = Integer.parseInt(
+                jdbcTemplate.queryForObject("show superuser_reserved_connections", String.class));
+        int perNodeBudget = (maxConnections - superuserReserved - RESERVED_CONNECTIONS) / nodes;
+        int recommended = Math.max(1, Math.min(knee, perNodeBudget));
+
+        StringBuilder table = new StringBuilder("\npool   ops/s     p99 us   acquire p99 us\n");
+        for (Result result : results) {
+            table.append(String.format("%4d %8.0f %10d %16d%n",
+                    result.poolSize(), result.opsPerSecond(), result.p99Micros(), result.acquireP99Micros()));
+        }
+        log.info("{}Knee: {} connections; budget per node for {} nodes: {} (max_connections {}); "
+                        + "recommended DB_POOL_SIZE={}",
+                table, knee, nodes, perNodeBudget, maxConnections, recommended);
+
+        assertThat(results).allSatisfy(result -> assertThat(result.opsPerSecond()).isPositive());
+        assertThat(perNodeBudget).as("max_connections leaves room for %d nodes", nodes).isPositive();
+        assertThat(recommended).isBetween(1, POOL_SIZES[POOL_SIZES.length - 1]);
+    }
+
+    private void seedUsers() {
+        jdbcTemplate.update("INSERT INTO users (email, password, role, created_at, updated_at) "
+                + "SELECT 'pool-' || n || '@terrace.test', 'x', 'USER', now(), now() "
+                + "FROM generate_series(1, ?) AS n ON CONFLICT (lower(email)) DO NOTHING", USERS);
+    }
+
+    // Пул с настройками приложения (таймауты, кэш prepared statements), отличается только размер
+    private Result measure(int poolSize) throws Exception {
+        HikariConfig config = new HikariConfig();
+        ((HikariDataSource) dataSource).copyStateTo(config);
+        config.setPoolName("pool-sizing-" + poolSize);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setConnectionTimeout(Duration.ofSeconds(30).toMillis());
+
+        try (HikariDataSource pool = new HikariDataSource(config)) {
+            run(pool, WARMUP);
+            return summarize(poolSize, run(pool, MEASUREMENT), MEASUREMENT);
+        }
+    }
+
+    private static Result summarize(int poolSize, List<long[]> samples, Duration duration) {
+        List<Long> latencies = new ArrayList<>(samples.size());
+        List<Long> acquires = new ArrayList<>(samples.size());
+        for (long[] sample : samples) {
+            latencies.add(sample[0]);
+            acquires.add(sample[1]);
+        }
+        return new Result(poolSize, samples.size() / (duration.toNanos() / 1e9),
+                p99(latencies) / 1000, p99(acquires) / 1000);
+    }
+
+    // {время операции, время ожидания соединения} в наносекундах на каждую операцию
+    private static List<long[]> run(HikariDataSource pool, Duration duration) throws Exception {
+        List<long[]> samples = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(executor.submit(() -> {
+                    while (running.get()) {
+                        samples.add(operation(pool));
+                    }
+                    return null;
+                }));
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+            for (Future<?> future : clients) {
+                future.get();
+            }
+        }
+        return samples;
+    }
+
+    // Типичный запрос: поиск пользователя по email и короткая запись в одной транзакции
+    private static long[] operation(DataSource pool) throws SQLException {
+        String email = "POOL-" + ThreadLocalRandom.current().nextInt(1, USERS + 1) + "@terrace.test";
+        long start = System.nanoTime();
+        try (Connection connection = pool.getConnection()) {
+            long acquired = System.nanoTime();
+            connection.setAutoCommit(false);
+            long id;
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT id, password, role FROM users WHERE lower(email) = lower(?)")) {
+                select.setString(1, email);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    resultSet.next();
+                    id = resultSet.getLong(1);
+                }
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE users SET updated_at = now() WHERE id = ?")) {
+                update.setLong(1, id);
+                update.executeUpdate();
+            }
+            connection.commit();
+            return new long[] {System.nanoTime() - start, acquired - start};
+        }
+    }
+
+    private static long p99(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.terrace.repository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность регистрации на уровне SQL: SELECT-then-INSERT (existsByEmail,
+ * затем INSERT - два запроса) против одного INSERT ... ON CONFLICT (lower(email)) DO NOTHING RETURNING id.
+ * Работает на отдельной таблице с тем же уникальным индексом, что у users; таблица
+ * создаётся и удаляется бенчмарком. Хэширование пароля не входит - только обращения к БД.
+ * БД - из DB_URL/DB_USERNAME/DB_PASSWORD, как у приложения. Запуск:
+ *   mvn -Pbenchmarks test-compile exec:exec -Djmh.args="RegistrationInsertBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+public class RegistrationInsertBenchmark {
+
+    private static final String TABLE = "registration_benchmark_users";
+
+    private final AtomicLong sequence = new AtomicLong();
+    private HikariDataSource dataSource;
+
+    @Setup
+    public void setUp() throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(Objects.requireNonNullElse(System.getenv("DB_URL"),
+                "jdbc:postgresql://localhost:5432/Terrace_21"));
+        config.setUsername(Objects.requireNonNullElse(System.getenv("DB_USERNAME"), "postgres"));
+        config.setPassword(Objects.requireNonNullElse(System.getenv("DB_PASSWORD"), "19111993"));
+        config.setMaximumPoolSize(8);
+        config.addDataSourceProperty("prepareThreshold", "3");
+        dataSource = new HikariDataSource(config);
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "email VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL, role VARCHAR(255) NOT NULL, "
+                    + "created_at TIMESTAMP(6) NOT NULL, updated_at TIMESTAMP(6) NOT NULL)");
+            statement.execute("CREATE UNIQUE INDEX ON " + TABLE + " (lower(email)) INCLUDE (id, email, password, role)");
+            statement.execute("INSERT INTO " + TABLE + " (email, password, role, created_at, updated_at) "
+                    + "VALUES ('taken@terrace.test', 'x', 'USER', now(), now())");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Benchmark
+    public boolean existsThenInsert() throws SQLException {
+        return existsThenInsert(freshEmail());
+    }
+
+    @Benchmark
+    public boolean insertOnConflict() throws SQLException {
+        return insertOnConflict(freshEmail());
+    }
+
+    // Занятый email: раньше - один SELECT, теперь - INSERT без вставки
+    @Benchmark
+    public boolean existsThenInsertTaken() throws SQLException {
+        return existsThenInsert("Taken@terrace.test");
+    }
+
+    @Benchmark
+    public boolean insertOnConflictTaken() throws SQLException {
+        return insertOnConflict("Taken@terrace.test");
+    }
+
+    private String freshEmail() {
+        return "bench-" + sequence.incrementAndGet() + "@terrace.test";
+    }
+
+    private boolean existsThenInsert(String email) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement exists = connection.prepareStatement(
+                    "SELECT count(*) > 0 FROM " + TABLE + " WHERE lower(email) = lower(?)")) {
+                exists.setString(1, email);
+                try (ResultSet resultSet = exists.executeQuery()) {
+                    resultSet.next();
+                    if (resultSet.getBoolean(1)) {
+                        return false;
+                    }
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + TABLE
+                    + " (email, password, role, created_at, updated_at) VALUES (?, 'x', 'USER', now(), now())")) {
+                insert.setString(1, email);
+                return insert.executeUpdate() == 1;
+            }
+        }
+    }
+
+    private boolean insertOnConflict(String email) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO " + TABLE
+                     + " (email, password, role, created_at, updated_at) VALUES (?, 'x', 'USER', now(), now()) "
+                     + "ON CONFLICT (lower(email)) DO NOTHING RETURNING id")) {
+            insert.setString(1, email);
+            try (ResultSet resultSet = insert.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.terrace.repository;
+
+import com.example.terrace.TestcontainersConfiguration;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы запросов логина и регистрации: SQL, который реально генерирует Hibernate для
+ * findCredentialsByEmail и existsByEmail, выполняется через EXPLAIN ANALYZE и должен идти
+ * Index Only Scan по uk_users_email_lower без чтения строк таблицы (V2__auth_indexes.sql)
+ */
+@SpringBootTest
+@Import({TestcontainersConfiguration.class, UserRepositoryQueryPlanTests.SqlCapture.class})
+@Testcontainers(disabledWithoutDocker = true)
+class UserRepositoryQueryPlanTests {
+
+    private static final String INDEX = "uk_users_email_lower";
+    private static final String EMAIL = "Plan-42@Terrace.test";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecordingStatementInspector statements;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SqlCapture {
+
+        @Bean
+        RecordingStatementInspector recordingStatementInspector() {
+            return new RecordingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(RecordingStatementInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    static class RecordingStatementInspector implements StatementInspector {
+
+        private final List<String> sql = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String statement) {
+            sql.add(statement);
+            return statement;
+        }
+
+        String lastSelectFromUsers() {
+            for (int i = sql.size() - 1; i >= 0; i--) {
+                if (sql.get(i).startsWith("select") && sql.get(i).contains(" users ")) {
+                    return sql.get(i);
+                }
+            }
+            throw new IllegalStateException("No select from users captured");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Достаточно строк, чтобы seq scan был дороже индекса; VACUUM заполняет visibility map,
+        // без неё Index Only Scan всё равно читает строки таблицы (Heap Fetches)
+        jdbcTemplate.update("INSERT INTO users (email, password, role, created_at, updated_at) "
+                + "SELECT 'plan-' || n || '@terrace.test', 'x', 'USER', now(), now() "
+                + "FROM generate_series(1, 5000) AS n ON CONFLICT (lower(email)) DO NOTHING");
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+    }
+
+    @Test
+    void credentialsLookupIsIndexOnly() throws Exception {
+        assertThat(userRepository.findCredentialsByEmail(EMAIL)).isPresent();
+
+        assertIndexOnly(statements.lastSelectFromUsers());
+    }
+
+    @Test
+    void emailExistsCheckIsIndexOnly() throws Exception {
+        assertThat(userRepository.existsByEmail(EMAIL)).isTrue();
+
+        assertIndexOnly(statements.lastSelectFromUsers());
+    }
+
+    private void assertIndexOnly(String sql) throws Exception {
+        // Единственный параметр этих запросов - email
+        String explained = "EXPLAIN (ANALYZE, FORMAT JSON) " + sql.replace("?", "'" + EMAIL + "'");
+        JsonNode plan = objectMapper.readTree(jdbcTemplate.queryForObject(explained, String.class))
+                .get(0).get("Plan");
+
+        List<JsonNode> scans = new ArrayList<>();
+        collectScans(plan, scans);
+        assertThat(scans).as("scans in plan of %s", sql).hasSize(1);
+        JsonNode scan = scans.get(0);
+        assertThat(scan.get("Node Type").asText()).isEqualTo("Index Only Scan");
+        assertThat(scan.get("Index Name").asText()).isEqualTo(INDEX);
+        assertThat(scan.get("Heap Fetches").asLong()).isZero();
+    }
+
+    private static void collectScans(JsonNode node, List<JsonNode> scans) {
+        if (node.get("Node Type").asText().endsWith("Scan")) {
+            scans.add(node);
+        }
+        JsonNode children = node.get("Plans");
+        if (children != null) {
+            children.forEach(child -> collectScans(child, scans));
+        }
+    }
+}
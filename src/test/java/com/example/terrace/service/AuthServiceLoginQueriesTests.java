@@ -0,0 +1,68 @@
+package com.example.terrace.service;
+
+import com.example.terrace.TestcontainersConfiguration;
+import com.example.terrace.dto.user.LoginRequest;
+import com.example.terrace.dto.user.LoginResponse;
+import com.example.terrace.dto.user.RegisterRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Число SQL-запросов на логин по статистике Hibernate: principal из
+ * CustomUserDetailsService уже несёт id и роль, повторного findByEmail нет.
+ * Статистика общая для всех потоков, поэтому задачи по расписанию выключены
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "scheduling.enabled=false"
+})
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class AuthServiceLoginQueriesTests {
+
+    private static final String PASSWORD = "secret-password";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RegisterService registerService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void loginIssuesOneQueryAndNoneWhenUserIsCached() {
+        String email = "login-queries@terrace.test";
+        registerService.register(new RegisterRequest(email, PASSWORD, PASSWORD));
+
+        statistics.clear();
+        LoginResponse first = authService.login(new LoginRequest(email, PASSWORD));
+
+        assertThat(first.getToken()).isNotNull();
+        assertThat(first.getUser().getId()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        LoginResponse second = authService.login(new LoginRequest(email, PASSWORD));
+
+        assertThat(second.getToken()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.terrace.service;
+
+import com.example.terrace.TestcontainersConfiguration;
+import com.example.terrace.dto.menu.MenuItemView;
+import com.example.terrace.model.MenuItem;
+import com.example.terrace.repository.MenuCategoryRepository;
+import com.example.terrace.repository.MenuItemRepository;
+import com.example.terrace.repository.MenuVersionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Правка меню на другом узле (таблицы и menu_version меняются без события на этом узле)
+ * попадает в снимок и снимает закэшированные страницы /menu/** после checkVersion
+ */
+@SpringBootTest(properties = "menu.catalog.version-check-interval-ms=3600000")
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class MenuCatalogVersionTests {
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @Autowired
+    private MenuCategoryRepository categoryRepository;
+
+    @Autowired
+    private MenuItemRepository itemRepository;
+
+    @Autowired
+    private MenuVersionRepository versionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void editOnAnotherNodeIsPickedUpByVersionCheck() {
+        long version = menuCatalog.getVersion();
+        menuCatalog.checkVersion();
+        assertThat(menuCatalog.getVersion()).as("no rebuild without a change").isEqualTo(version);
+
+        pageCache.put("/menu/lunch", pageCache.contentVersion("/menu/lunch"), "text/html", new byte[]{1});
+        assertThat(pageCache.get("/menu/lunch")).isNotNull();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            MenuItem item = new MenuItem();
+            item.setCategory(categoryRepository.findBySlug("lunch").orElseThrow());
+            item.setName("Борщ з іншого вузла");
+            item.setPrice(new BigDecimal("180.00"));
+            itemRepository.save(item);
+            versionRepository.increment();
+        });
+        assertThat(names("lunch")).doesNotContain("Борщ з іншого вузла");
+
+        menuCatalog.checkVersion();
+
+        assertThat(menuCatalog.getVersion()).isGreaterThan(version);
+        assertThat(names("lunch")).contains("Борщ з іншого вузла");
+        assertThat(pageCache.get("/menu/lunch")).isNull();
+    }
+
+    private List<String> names(String slug) {
+        return menuCatalog.findCategory(slug).orElseThrow().items().stream().map(MenuItemView::name).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.terrace.service;
+
+import com.example.terrace.TestcontainersConfiguration;
+import com.example.terrace.dto.user.LoginResponse;
+import com.example.terrace.dto.user.RegisterRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Одновременные регистрации одного email (в разном регистре): INSERT ... ON CONFLICT
+ * пропускает ровно одну, остальные получают "Email already exists", а не "Registration failed"
+ */
+@SpringBootTest(properties = {
+        // Дешёвый хэш: тест про гонку вставок, а не про стоимость bcrypt
+        "security.password.bcrypt.strength=4",
+        "security.password.hashing.queue-capacity=256"
+})
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class RegisterServiceConcurrencyTests {
+
+    private static final int THREADS = 32;
+    private static final String PASSWORD = "race-password";
+
+    @Autowired
+    private RegisterService registerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentRegistrationsOfSameEmailCreateExactlyOneUser() throws Exception {
+        String email = "race@terrace.test";
+        List<LoginResponse> responses = registerConcurrently(thread ->
+                thread % 2 == 0 ? email : email.toUpperCase(Locale.ROOT));
+
+        assertThat(responses).filteredOn(response -> response.getUser() != null).hasSize(1);
+        assertThat(responses).filteredOn(response -> response.getUser() == null)
+                .hasSize(THREADS - 1)
+                .allSatisfy(response -> assertThat(response.getMessage()).isEqualTo("Email already exists"));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE lower(email) = ?", Integer.class, email)).isEqualTo(1);
+        assertThat(registerService.isEmailAvailable(email)).isFalse();
+    }
+
+    @Test
+    void concurrentRegistrationsOfDistinctEmailsAllSucceed() throws Exception {
+        List<LoginResponse> responses = registerConcurrently(thread -> "distinct-" + thread + "@terrace.test");
+
+        assertThat(responses).allSatisfy(response -> assertThat(response.getUser()).isNotNull());
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE email LIKE 'distinct-%@terrace.test'", Integer.class))
+                .isEqualTo(THREADS);
+    }
+
+    private interface EmailForThread {
+        String email(int thread);
+    }
+
+    private List<LoginResponse> registerConcurrently(EmailForThread emails) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<LoginResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                String email = emails.email(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return registerService.register(new RegisterRequest(email, PASSWORD, PASSWORD));
+                }));
+            }
+            start.countDown();
+            List<LoginResponse> responses = new ArrayList<>();
+            for (Future<LoginResponse> future : futures) {
+                responses.add(future.get());
+            }
+            return responses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
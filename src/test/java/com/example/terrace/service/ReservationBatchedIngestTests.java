@@ -0,0 +1,71 @@
+package com.example.terrace.service;
+
+import com.example.terrace.TestcontainersConfiguration;
+import com.example.terrace.dto.reservation.ReservationRequest;
+import com.example.terrace.dto.reservation.ReservationResponse;
+import com.example.terrace.enums.ReservationStatus;
+import com.example.terrace.repository.ReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * batched-режим: бронь, принятая в журнал, отменяется по reference ещё до записи в БД
+ */
+@SpringBootTest(properties = {
+        "reservation.ingest.mode=batched",
+        "reservation.ingest.journal-dir=${java.io.tmpdir}/terrace-journal-test-${random.uuid}",
+        // flush только явный, из отмены
+        "reservation.ingest.flush-interval-ms=3600000"
+})
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class ReservationBatchedIngestTests {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationBatchWriter batchWriter;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Test
+    void acceptedReservationCanBeCancelledBeforeItIsWritten() {
+        LocalDate date = LocalDate.now().plusDays(3);
+        LocalTime time = LocalTime.of(19, 30);
+        int before = remaining(date, time);
+
+        ReservationResponse accepted = reservationService.create(
+                new ReservationRequest("Guest", "+10000000000", date, time, 4, null, null));
+        assertThat(accepted.getOutcome()).isEqualTo(ReservationResponse.Outcome.CONFIRMED);
+        assertThat(accepted.getReference()).isNotNull();
+        assertThat(batchWriter.isPending(accepted.getReference())).isTrue();
+        assertThat(remaining(date, time)).isEqualTo(before - 4);
+
+        ReservationResponse cancelled = reservationService.cancel(accepted.getReference());
+
+        assertThat(cancelled.getOutcome()).isEqualTo(ReservationResponse.Outcome.CANCELLED);
+        assertThat(reservationRepository.findByReference(accepted.getReference()))
+                .hasValueSatisfying(reservation -> assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.CANCELLED));
+        assertThat(remaining(date, time)).isEqualTo(before);
+    }
+
+    @Test
+    void unknownReferenceIsNotFound() {
+        assertThat(reservationService.cancel("no-such-reference").getOutcome())
+                .isEqualTo(ReservationResponse.Outcome.NOT_FOUND);
+    }
+
+    private int remaining(LocalDate date, LocalTime time) {
+        return reservationService.getAvailability(date).remaining()[SlotCapacityIndex.slotIndex(time)];
+    }
+}
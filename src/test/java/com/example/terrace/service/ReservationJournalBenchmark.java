@@ -0,0 +1,122 @@
+package com.example.terrace.service;
+
+import com.example.terrace.dto.reservation.ReservationRequest;
+import com.example.terrace.mapper.ReservationMapper;
+import com.example.terrace.repository.ReservationRepository;
+import com.example.terrace.repository.ReservationSlotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Приём броней в batched-режиме: сколько подтверждений (запись на диске) в секунду
+ * даёт журнал. perEntry - прежняя схема, fsync на каждую бронь под общей блокировкой;
+ * groupCommit - ReservationBatchWriter.submit, один fsync на накопившуюся группу.
+ * Запись в PostgreSQL идёт позже пачками и в замер не входит: без БД flush не вызывается.
+ * Числа зависят от диска (fsync на tmpfs почти бесплатен) - запускать на диске узла.
+ * Запуск: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ReservationJournalBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ReservationJournalBenchmark {
+
+    private final ReservationRequest request = new ReservationRequest("Guest", "+10000000000",
+            LocalDate.of(2030, 1, 15), LocalTime.of(19, 0), 2, null, null);
+
+    private Path directory;
+    private ReservationJournal perEntryJournal;
+    private ReservationBatchWriter writer;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("reservation-journal-bench");
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        perEntryJournal = new ReservationJournal(directory.resolve("per-entry"), objectMapper);
+        writer = new ReservationBatchWriter(Mockito.mock(ReservationRepository.class),
+                Mockito.mock(ReservationSlotRepository.class), new ReservationMapper(),
+                Mockito.mock(PlatformTransactionManager.class), objectMapper,
+                directory.resolve("group"), 500, 40);
+        writer.replay();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        synchronized (perEntryJournal) {
+            perEntryJournal.rotate();
+        }
+        // flush на моках БД завершится ошибкой записи - сегменты просто удаляются вместе с каталогом
+        writer.shutdown();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void perEntry1() {
+        perEntry();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void perEntry16() {
+        perEntry();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void perEntry64() {
+        perEntry();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String groupCommit1() {
+        return writer.submit(request);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String groupCommit16() {
+        return writer.submit(request);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String groupCommit64() {
+        return writer.submit(request);
+    }
+
+    private void perEntry() {
+        ReservationJournal.JournalEntry entry =
+                new ReservationJournal.JournalEntry(UUID.randomUUID().toString(), request);
+        synchronized (perEntryJournal) {
+            perEntryJournal.append(entry);
+            perEntryJournal.sync();
+        }
+    }
+}
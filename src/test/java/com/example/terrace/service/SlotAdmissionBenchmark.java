@@ -0,0 +1,124 @@
+package com.example.terrace.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность допуска броней: SlotCapacityIndex (CAS по слоту, слоты
+ * в разных кэш-линиях) против одного synchronized-аллокатора на все слоты
+ * (SynchronizedAllocator: общий монитор, проверка и списание остатка под ним).
+ * Каждая операция - бронь в случайный слот и её отмена, остатки не заканчиваются.
+ * Запуск: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="SlotAdmissionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SlotAdmissionBenchmark {
+
+    private static final LocalDate DATE = LocalDate.of(2030, 1, 15);
+    private static final int CAPACITY = 1_000_000;
+
+    private SlotCapacityIndex striped;
+    private SynchronizedAllocator single;
+
+    @Setup
+    public void setUp() {
+        int[] remaining = new int[SlotCapacityIndex.SLOT_COUNT];
+        Arrays.fill(remaining, CAPACITY);
+        striped = new SlotCapacityIndex();
+        striped.loadIfAbsent(DATE, date -> remaining.clone());
+        single = new SynchronizedAllocator(remaining.clone());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean striped8() {
+        return striped();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public boolean striped32() {
+        return striped();
+    }
+
+    @Benchmark
+    @Threads(128)
+    public boolean striped128() {
+        return striped();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean synchronized8() {
+        return single();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public boolean synchronized32() {
+        return single();
+    }
+
+    @Benchmark
+    @Threads(128)
+    public boolean synchronized128() {
+        return single();
+    }
+
+    private boolean striped() {
+        LocalTime time = SlotCapacityIndex.slots().get(ThreadLocalRandom.current().nextInt(SlotCapacityIndex.SLOT_COUNT));
+        boolean reserved = striped.tryReserve(DATE, time, 2);
+        if (reserved) {
+            striped.release(DATE, time, 2);
+        }
+        return reserved;
+    }
+
+    private boolean single() {
+        int slot = ThreadLocalRandom.current().nextInt(SlotCapacityIndex.SLOT_COUNT);
+        boolean reserved = single.tryReserve(slot, 2);
+        if (reserved) {
+            single.release(slot, 2);
+        }
+        return reserved;
+    }
+
+    private static final class SynchronizedAllocator {
+        private final int[] remaining;
+
+        private SynchronizedAllocator(int[] remaining) {
+            this.remaining = remaining;
+        }
+
+        private synchronized boolean tryReserve(int slot, int guests) {
+            if (remaining[slot] < guests) {
+                return false;
+            }
+            remaining[slot] -= guests;
+            return true;
+        }
+
+        private synchronized void release(int slot, int guests) {
+            remaining[slot] += guests;
+        }
+    }
+}
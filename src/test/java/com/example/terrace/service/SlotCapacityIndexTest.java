@@ -0,0 +1,167 @@
+package com.example.terrace.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Стресс-тест допуска: много потоков бронируют одни и те же слоты,
+ * в каждый слот принимается ровно вместимость - без овербукинга и без потерь;
+ * перечитывание дня из БД при расхождении и по возрасту
+ */
+class SlotCapacityIndexTest {
+
+    private static final LocalDate DATE = LocalDate.of(2030, 1, 15);
+    private static final int CAPACITY = 40;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 2_000;
+
+    @Test
+    void concurrentReservationsNeverExceedSlotCapacity() throws Exception {
+        SlotCapacityIndex index = loadedIndex();
+        AtomicIntegerArray accepted = new AtomicIntegerArray(SlotCapacityIndex.SLOT_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+
+        runConcurrently(start, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                int slot = random.nextInt(SlotCapacityIndex.SLOT_COUNT);
+                int guests = 1 + random.nextInt(4);
+                if (index.tryReserve(DATE, SlotCapacityIndex.slots().get(slot), guests)) {
+                    accepted.addAndGet(slot, guests);
+                }
+            }
+        });
+
+        SlotCapacityIndex.DayAvailability availability = index.availability(DATE);
+        for (int slot = 0; slot < SlotCapacityIndex.SLOT_COUNT; slot++) {
+            assertThat(accepted.get(slot) + availability.remaining()[slot]).isEqualTo(CAPACITY);
+            // Спрос много больше вместимости: остаток меньше самой маленькой брони не остаётся
+            assertThat(availability.remaining()[slot]).isZero();
+        }
+    }
+
+    @Test
+    void concurrentReserveAndReleaseKeepCapacityAndBumpVersion() throws Exception {
+        SlotCapacityIndex index = loadedIndex();
+        long initialVersion = index.availability(DATE).version();
+        CountDownLatch start = new CountDownLatch(1);
+
+        runConcurrently(start, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                LocalTime time = SlotCapacityIndex.slots().get(random.nextInt(SlotCapacityIndex.SLOT_COUNT));
+                if (index.tryReserve(DATE, time, 3)) {
+                    index.release(DATE, time, 3);
+                }
+            }
+        });
+
+        SlotCapacityIndex.DayAvailability availability = index.availability(DATE);
+        assertThat(availability.remaining()).containsOnly(CAPACITY);
+        assertThat(availability.version()).isGreaterThan(initialVersion);
+    }
+
+    @Test
+    void lastModifiedChangesOnlyWithVersion() throws Exception {
+        SlotCapacityIndex index = loadedIndex();
+        SlotCapacityIndex.DayAvailability first = index.availability(DATE);
+        Thread.sleep(5);
+        assertThat(index.availability(DATE).lastModified()).isEqualTo(first.lastModified());
+
+        index.tryReserve(DATE, LocalTime.of(19, 0), 2);
+        SlotCapacityIndex.DayAvailability changed = index.availability(DATE);
+        assertThat(changed.version()).isEqualTo(first.version() + 1);
+        assertThat(changed.lastModified()).isGreaterThan(first.lastModified());
+    }
+
+    @Test
+    void reloadTakesCountsFromDatabaseAndBumpsVersion() {
+        SlotCapacityIndex index = loadedIndex();
+        SlotCapacityIndex.DayAvailability before = index.availability(DATE);
+        // Бронь с другого узла: в БД в слоте 19:00 осталось 10 мест
+        int slot = SlotCapacityIndex.slotIndex(LocalTime.of(19, 0));
+
+        index.reload(DATE, date -> remaining(slot, 10));
+
+        SlotCapacityIndex.DayAvailability after = index.availability(DATE);
+        assertThat(after.remaining()[slot]).isEqualTo(10);
+        assertThat(after.version()).isEqualTo(before.version() + 1);
+        assertThat(index.tryReserve(DATE, LocalTime.of(19, 0), 11)).isFalse();
+    }
+
+    @Test
+    void onlyStaleDayIsReloaded() throws Exception {
+        SlotCapacityIndex index = loadedIndex();
+        int slot = SlotCapacityIndex.slotIndex(LocalTime.of(19, 0));
+        AtomicInteger loads = new AtomicInteger();
+        Duration ttl = Duration.ofMillis(50);
+
+        index.loadIfStale(DATE, ttl, date -> {
+            loads.incrementAndGet();
+            return remaining(slot, 10);
+        });
+        assertThat(loads).hasValue(0);
+
+        Thread.sleep(60);
+        for (int i = 0; i < 2; i++) {
+            index.loadIfStale(DATE, ttl, date -> {
+                loads.incrementAndGet();
+                return remaining(slot, 10);
+            });
+        }
+        assertThat(loads).as("second call sees a freshly reloaded day").hasValue(1);
+        assertThat(index.availability(DATE).remaining()[slot]).isEqualTo(10);
+    }
+
+    private static int[] remaining(int slot, int seats) {
+        int[] remaining = new int[SlotCapacityIndex.SLOT_COUNT];
+        Arrays.fill(remaining, CAPACITY);
+        remaining[slot] = seats;
+        return remaining;
+    }
+
+    private static SlotCapacityIndex loadedIndex() {
+        SlotCapacityIndex index = new SlotCapacityIndex();
+        index.loadIfAbsent(DATE, date -> {
+            int[] remaining = new int[SlotCapacityIndex.SLOT_COUNT];
+            Arrays.fill(remaining, CAPACITY);
+            return remaining;
+        });
+        return index;
+    }
+
+    private static void runConcurrently(CountDownLatch start, Runnable work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    work.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
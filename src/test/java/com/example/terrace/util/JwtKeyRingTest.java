@@ -0,0 +1,240 @@
+package com.example.terrace.util;
+
+import com.example.terrace.model.JwtKeyRingState;
+import com.example.terrace.model.JwtSigningKey;
+import com.example.terrace.repository.JwtKeyRingStateRepository;
+import com.example.terrace.repository.JwtSigningKeyRepository;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ротация связки ключей ES256 на общем хранилище (в памяти вместо jwt_signing_keys):
+ * следующий ключ публикуется до активации, неизвестный kid перечитывает связку без
+ * отрицательного кэша, старые ключи и ключ из jwt.secret выводятся по сроку жизни токенов
+ */
+class JwtKeyRingTest {
+
+    private static final Duration ROTATION_INTERVAL = Duration.ofDays(7);
+    private static final Duration PRE_PUBLISH = Duration.ofMinutes(15);
+    private static final String ENCRYPTION_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final JwtKeyCipher CIPHER = new JwtKeyCipher(ENCRYPTION_KEY);
+
+    private final List<JwtSigningKey> stored = new ArrayList<>();
+    private JwtSigningKeyRepository keyRepository;
+    private JwtKeyRingStateRepository stateRepository;
+    private Instant rotationEnabledAt;
+
+    @BeforeEach
+    void setUp() {
+        keyRepository = mock(JwtSigningKeyRepository.class);
+        when(keyRepository.findAllByOrderByActivatesAtDescKidDesc()).thenAnswer(invocation -> stored.stream()
+                .sorted(Comparator.comparing(JwtSigningKey::getActivatesAt)
+                        .thenComparing(JwtSigningKey::getKid).reversed())
+                .toList());
+        when(keyRepository.save(any(JwtSigningKey.class))).thenAnswer(invocation -> {
+            stored.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        doAnswer(invocation -> {
+            Collection<String> kids = invocation.getArgument(0);
+            stored.removeIf(key -> kids.contains(key.getKid()));
+            return null;
+        }).when(keyRepository).deleteAllByIdInBatch(anyCollection());
+
+        rotationEnabledAt = Instant.now().minus(Duration.ofDays(30));
+        stateRepository = mock(JwtKeyRingStateRepository.class);
+        when(stateRepository.findById(anyInt())).thenAnswer(invocation ->
+                Optional.of(new JwtKeyRingState(JwtKeyRingState.ID, rotationEnabledAt)));
+    }
+
+    @Test
+    void nextKeyIsPublishedBeforeItSigns() {
+        JwtSigningKey current = store(Instant.now().minus(ROTATION_INTERVAL).plus(Duration.ofMinutes(10)));
+
+        JwtKeyRing keyRing = keyRing(Duration.ofSeconds(5));
+
+        assertThat(stored).hasSize(2);
+        JwtSigningKey next = stored.get(1);
+        assertThat(next.getActivatesAt()).isAfterOrEqualTo(Instant.now().plus(PRE_PUBLISH).minusSeconds(5));
+        assertThat(keyRing.activeKey().kid()).isEqualTo(current.getKid());
+        assertThat(keyRing.verificationKey(next.getKid())).isNotNull();
+        assertThat(keyRing.publicJwks()).extracting(jwk -> jwk.get("kid"))
+                .containsExactlyInAnyOrder(current.getKid(), next.getKid());
+
+        keyRing.rotate();
+        assertThat(stored).as("published key is not duplicated on the next refresh").hasSize(2);
+    }
+
+    @Test
+    void publishedKeySignsFromActivationWithoutRefresh() throws InterruptedException {
+        store(Instant.now().minus(Duration.ofDays(1)));
+        JwtSigningKey next = store(Instant.now().plusMillis(300));
+        JwtKeyRing keyRing = keyRing(Duration.ofSeconds(5));
+        assertThat(keyRing.activeKey().kid()).isNotEqualTo(next.getKid());
+
+        Thread.sleep(400);
+
+        assertThat(keyRing.activeKey().kid()).isEqualTo(next.getKid());
+    }
+
+    @Test
+    void unknownKidReloadsRingAtMostOncePerInterval() {
+        store(Instant.now().minus(Duration.ofDays(1)));
+        JwtKeyRing keyRing = keyRing(Duration.ofMinutes(1));
+        // Ключ, выпущенный другим узлом после нашего перечитывания
+        JwtSigningKey foreign = store(Instant.now().plus(PRE_PUBLISH));
+        clearInvocations(keyRepository);
+
+        assertThat(keyRing.verificationKey(foreign.getKid())).isNotNull();
+        assertThat(keyRing.verificationKey("garbage-1")).isNull();
+        assertThat(keyRing.verificationKey("garbage-2")).isNull();
+
+        verify(keyRepository).findAllByOrderByActivatesAtDescKidDesc();
+        verify(keyRepository, never()).save(any());
+    }
+
+    @Test
+    void tokenWithUnknownKidIsAcceptedOnceKeyIsLoaded() {
+        store(Instant.now().minus(Duration.ofDays(1)));
+        JwtKeyRing keyRing = keyRing(Duration.ZERO);
+        JwtUtil jwtUtil = JwtTestSupport.jwtUtil(keyRing, JwtTestSupport.authMetrics(1.0));
+        JwtSigningKey foreign = generate(Instant.now().plus(PRE_PUBLISH));
+        String token = token(foreign);
+
+        assertThat(jwtUtil.validate(token)).isEqualTo(JwtValidationResult.BAD_SIGNATURE);
+
+        stored.add(foreign);
+        assertThat(jwtUtil.validate(token)).isInstanceOf(JwtValidationResult.Valid.class);
+    }
+
+    @Test
+    void keysAreRetiredAfterTheirTokensExpire() {
+        Instant now = Instant.now();
+        JwtSigningKey expired = store(now.minus(Duration.ofDays(10)));
+        // Перестал подписывать 23 часа назад: его токены ещё живы
+        JwtSigningKey previous = store(now.minus(Duration.ofDays(3)));
+        JwtSigningKey current = store(now.minus(Duration.ofHours(23)));
+
+        keyRing(Duration.ofSeconds(5));
+
+        assertThat(stored).extracting(JwtSigningKey::getKid)
+                .containsExactlyInAnyOrder(previous.getKid(), current.getKid());
+        verify(keyRepository, atLeastOnce()).deleteAllByIdInBatch(List.of(expired.getKid()));
+    }
+
+    @Test
+    void staticKeyIsRetiredAfterRotationIntervalAndTokenLifetime() {
+        store(Instant.now().minus(Duration.ofDays(1)));
+        rotationEnabledAt = Instant.now().minus(Duration.ofDays(6));
+        JwtKeyRing keyRing = keyRing(Duration.ofSeconds(5));
+        assertThat(keyRing.verificationKey(null)).isNotNull();
+
+        rotationEnabledAt = Instant.now().minus(ROTATION_INTERVAL).minus(Duration.ofDays(1)).minusSeconds(1);
+        keyRing.rotate();
+
+        assertThat(keyRing.verificationKey(null)).isNull();
+        assertThat(keyRing.verificationKey("static")).isNull();
+    }
+
+    @Test
+    void storedKeyMaterialIsEncryptedAndBoundToKid() {
+        keyRing(Duration.ofSeconds(5));
+        JwtSigningKey created = stored.get(0);
+        JwtKeyRing.RingKey key = JwtKeyRing.decode(created, CIPHER);
+
+        String plain = Base64.getEncoder().encodeToString(key.signingKey().getEncoded());
+        assertThat(created.getPrivateKey()).isNotEqualTo(plain);
+        JwtKeyCipher otherCipher = new JwtKeyCipher(Base64.getEncoder()
+                .encodeToString("another-encryption-key-32-bytes!".getBytes(StandardCharsets.UTF_8)));
+        assertThatThrownBy(() -> otherCipher.decrypt(created.getKid(), created.getPrivateKey()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> CIPHER.decrypt("another-kid", created.getPrivateKey()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rotationWithoutEncryptionKeyFailsAtStartup() {
+        JwtKeyRing keyRing = configured(Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(keyRing, "encryptionKey", "");
+
+        assertThatThrownBy(keyRing::init)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.keys.encryption-key");
+    }
+
+    private JwtKeyRing keyRing(Duration unknownKidReloadInterval) {
+        JwtKeyRing keyRing = configured(unknownKidReloadInterval);
+        keyRing.init();
+        return keyRing;
+    }
+
+    private JwtKeyRing configured(Duration unknownKidReloadInterval) {
+        JwtKeyRing keyRing = new JwtKeyRing(keyRepository, stateRepository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(keyRing, "secret", JwtTestSupport.SECRET);
+        ReflectionTestUtils.setField(keyRing, "staticKid", "static");
+        ReflectionTestUtils.setField(keyRing, "rotationEnabled", true);
+        ReflectionTestUtils.setField(keyRing, "algorithm", JwtKeyRing.ES256);
+        ReflectionTestUtils.setField(keyRing, "rotationInterval", ROTATION_INTERVAL);
+        ReflectionTestUtils.setField(keyRing, "prePublish", PRE_PUBLISH);
+        ReflectionTestUtils.setField(keyRing, "refreshIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(keyRing, "unknownKidReloadInterval", unknownKidReloadInterval);
+        ReflectionTestUtils.setField(keyRing, "encryptionKey", ENCRYPTION_KEY);
+        return keyRing;
+    }
+
+    private JwtSigningKey store(Instant activatesAt) {
+        JwtSigningKey key = generate(activatesAt);
+        stored.add(key);
+        return key;
+    }
+
+    private static JwtSigningKey generate(Instant activatesAt) {
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        String kid = UUID.randomUUID().toString();
+        return new JwtSigningKey(kid, JwtKeyRing.ES256,
+                CIPHER.encrypt(kid, keyPair.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                activatesAt, activatesAt);
+    }
+
+    private static String token(JwtSigningKey stored) {
+        JwtKeyRing.RingKey key = JwtKeyRing.decode(stored, CIPHER);
+        long now = System.currentTimeMillis();
+        return key.signWith(Jwts.builder()
+                        .claims(Map.of("roles", List.of("ROLE_USER")))
+                        .subject("guest@terrace.test")
+                        .issuedAt(new Date(now))
+                        .expiration(new Date(now + 60_000)))
+                .compact();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.terrace.util;
+
+import com.example.terrace.enums.UserRole;
+import com.example.terrace.repository.RevokedSubjectRepository;
+import com.example.terrace.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость JwtRequestFilter на запрос с валидным токеном.
+ * baseline - прежний фильтр (ParsePerCallFilter): extractUsername, поиск пользователя и
+ * validateToken, каждый вызов строит новый парсер и заново проверяет HMAC (три разбора);
+ * filter - текущий фильтр с кэшем проверенных токенов.
+ * Запуск: mvn -Pbenchmarks test-compile exec:exec -Djmh.args=JwtRequestFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    @Param({"true", "false"})
+    private boolean statelessPrincipal;
+
+    private SecretKey key;
+    private String token;
+    private JwtRequestFilter filter;
+    private ParsePerCallFilter parsePerCallFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtTestSupport.SECRET));
+
+        AuthMetrics authMetrics = JwtTestSupport.authMetrics(0.1);
+        JwtUtil jwtUtil = JwtTestSupport.jwtUtil(JwtTestSupport.staticKeyRing(), authMetrics);
+        CustomUserDetails user = new CustomUserDetails(1L, "guest@terrace.test", "{noop}secret", UserRole.USER);
+        token = jwtUtil.generateToken(user);
+
+        UserDetailsService userDetailsService = username -> user.copy();
+        TokenRevocationService revocationService =
+                new TokenRevocationService(Mockito.mock(RevokedTokenRepository.class),
+                        Mockito.mock(RevokedSubjectRepository.class), Duration.ofSeconds(5));
+
+        filter = new JwtRequestFilter(jwtUtil, userDetailsService, revocationService, authMetrics);
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", statelessPrincipal);
+        parsePerCallFilter = new ParsePerCallFilter(key, userDetailsService);
+
+        request = new MockHttpServletRequest("GET", "/dashboard");
+        request.setCookies(new Cookie("jwt-token", token));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object baseline() throws Exception {
+        return authenticate(parsePerCallFilter);
+    }
+
+    @Benchmark
+    public Object filter() throws Exception {
+        return authenticate(filter);
+    }
+
+    private Object authenticate(Filter target) throws Exception {
+        target.doFilter(request, response, new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    /**
+     * JwtRequestFilter и JwtUtil до кэша проверенных токенов: разбор токена на каждый вызов
+     */
+    static final class ParsePerCallFilter extends OncePerRequestFilter {
+
+        private final SecretKey key;
+        private final UserDetailsService userDetailsService;
+
+        ParsePerCallFilter(SecretKey key, UserDetailsService userDetailsService) {
+            this.key = key;
+            this.userDetailsService = userDetailsService;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            String jwt = request.getCookies()[0].getValue();
+            String username = null;
+            try {
+                username = extractAllClaims(jwt).getSubject();
+            } catch (Exception e) {
+                response.addHeader("JWT-Error", "Invalid token");
+            }
+
+            if (StringUtils.hasText(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
+                try {
+                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    if (validateToken(jwt, userDetails)) {
+                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                                userDetails, null, userDetails.getAuthorities());
+                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(authToken);
+                    }
+                } catch (UsernameNotFoundException e) {
+                    // как в прежнем фильтре: пользователь не найден - запрос идёт дальше анонимным
+                }
+            }
+
+            filterChain.doFilter(request, response);
+        }
+
+        private boolean validateToken(String token, UserDetails userDetails) {
+            String username = extractAllClaims(token).getSubject();
+            return username != null
+                    && username.equals(userDetails.getUsername())
+                    && !extractAllClaims(token).getExpiration().before(new Date());
+        }
+
+        private Claims extractAllClaims(String token) {
+            return Jwts.parser()
+                    .verifyWith(key)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.terrace.util;
+
+import com.example.terrace.enums.UserRole;
+import com.example.terrace.repository.RevokedSubjectRepository;
+import com.example.terrace.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class JwtRequestFilterTest {
+
+    private JwtKeyRing keyRing;
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsService userDetailsService;
+    private JwtRequestFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = JwtTestSupport.staticKeyRing();
+        meterRegistry = new SimpleMeterRegistry();
+        AuthMetrics authMetrics = JwtTestSupport.authMetrics(meterRegistry, 1.0);
+        userDetailsService = mock(UserDetailsService.class);
+        TokenRevocationService revocationService = new TokenRevocationService(
+                mock(RevokedTokenRepository.class), mock(RevokedSubjectRepository.class), Duration.ofSeconds(5));
+
+        filter = new JwtRequestFilter(JwtTestSupport.jwtUtil(keyRing, authMetrics),
+                userDetailsService, revocationService, authMetrics);
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessPrincipalFallsBackToGenericUserForUnknownRole() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard");
+        request.setCookies(new Cookie("jwt-token", token(Map.of("uid", 7, "roles", List.of("ROLE_MANAGER")))));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getPrincipal()).isNotInstanceOf(CustomUserDetails.class);
+        assertThat(authentication.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_MANAGER");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void statelessPrincipalCarriesIdAndRoleForKnownRole() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard");
+        request.setCookies(new Cookie("jwt-token", token(Map.of("uid", 7, "roles", List.of("ROLE_ADMIN")))));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertThat(principal).isInstanceOf(CustomUserDetails.class);
+        assertThat(((CustomUserDetails) principal).getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void filterTimerRecordedWhenRequestIsAlreadyAuthenticated() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("guest@terrace.test", null, List.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard");
+        request.setCookies(new Cookie("jwt-token", token(Map.of("uid", 7, "roles", List.of("ROLE_USER")))));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(meterRegistry.find("auth.jwt.filter")
+                .tag("outcome", AuthMetrics.ALREADY_AUTHENTICATED).timer())
+                .isNotNull()
+                .extracting(Timer::count)
+                .isEqualTo(1L);
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void databasePrincipalIsAuthenticatedFromVerifiedClaims() throws Exception {
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", false);
+        when(userDetailsService.loadUserByUsername("guest@terrace.test"))
+                .thenReturn(new CustomUserDetails(7L, "guest@terrace.test", "{noop}secret", UserRole.USER));
+
+        MockHttpServletResponse response = filterWithUserToken();
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .isInstanceOf(CustomUserDetails.class);
+        assertThat(filterOutcomes(AuthMetrics.SUCCESS)).isEqualTo(1L);
+        assertThat(response.getHeader("JWT-Error")).isNull();
+    }
+
+    @Test
+    void subjectMismatchIsNotReportedAsExpired() throws Exception {
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", false);
+        when(userDetailsService.loadUserByUsername("guest@terrace.test"))
+                .thenReturn(new CustomUserDetails(8L, "other@terrace.test", "{noop}secret", UserRole.USER));
+
+        filterWithUserToken();
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(filterOutcomes(AuthMetrics.SUBJECT_MISMATCH)).isEqualTo(1L);
+        assertThat(filterOutcomes(AuthMetrics.EXPIRED)).isZero();
+    }
+
+    private MockHttpServletResponse filterWithUserToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard");
+        request.setCookies(new Cookie("jwt-token", token(Map.of("uid", 7, "roles", List.of("ROLE_USER")))));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private long filterOutcomes(String outcome) {
+        Timer timer = meterRegistry.find("auth.jwt.filter").tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private String token(Map<String, Object> claims) {
+        JwtKeyRing.RingKey key = keyRing.activeKey();
+        long now = System.currentTimeMillis();
+        return key.signWith(Jwts.builder()
+                        .claims(claims)
+                        .subject("guest@terrace.test")
+                        .issuedAt(new Date(now))
+                        .expiration(new Date(now + 60_000)))
+                .compact();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.terrace.util;
+
+import com.example.terrace.model.JwtSigningKey;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Locator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность подписи и проверки JWT ключом связки по алгоритмам:
+ * HS256 (секрет на всех узлах) против ES256 (проверка по публичному ключу из JWKS).
+ * Кэш проверенных токенов JwtUtil не участвует - только криптография и разбор.
+ * Запуск: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="JwtSigningBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    @Param({JwtKeyRing.HS256, JwtKeyRing.ES256})
+    public String algorithm;
+
+    private JwtKeyRing.RingKey key;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyCipher cipher = new JwtKeyCipher(Base64.getEncoder().encodeToString(new byte[32]));
+        key = JwtKeyRing.decode(generate(algorithm, cipher), cipher);
+        Locator<Key> locator = header -> key.verificationKey();
+        parser = Jwts.parser().keyLocator(locator).build();
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        long now = System.currentTimeMillis();
+        return key.signWith(Jwts.builder()
+                        .claims(Map.of("roles", List.of("ROLE_USER"), "uid", 42L))
+                        .subject("guest@terrace.test")
+                        .id(UUID.randomUUID().toString())
+                        .issuedAt(new Date(now))
+                        .expiration(new Date(now + 60_000)))
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    private static JwtSigningKey generate(String algorithm, JwtKeyCipher cipher) {
+        String kid = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        if (JwtKeyRing.ES256.equals(algorithm)) {
+            KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+            return new JwtSigningKey(kid, algorithm,
+                    cipher.encrypt(kid, keyPair.getPrivate().getEncoded()),
+                    Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                    now, now);
+        }
+        SecretKey secretKey = Jwts.SIG.HS256.key().build();
+        return new JwtSigningKey(kid, algorithm, cipher.encrypt(kid, secretKey.getEncoded()), null, now, now);
+    }
+}
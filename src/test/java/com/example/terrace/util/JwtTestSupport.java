@@ -0,0 +1,49 @@
+package com.example.terrace.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Сборка JwtKeyRing/JwtUtil без Spring-контекста - для тестов и бенчмарков
+ */
+public final class JwtTestSupport {
+
+    public static final String SECRET = Base64.getEncoder()
+            .encodeToString("terrace-test-secret-terrace-test-secret".getBytes());
+
+    private JwtTestSupport() {
+    }
+
+    public static AuthMetrics authMetrics(double sampleRate) {
+        return authMetrics(new SimpleMeterRegistry(), sampleRate);
+    }
+
+    public static AuthMetrics authMetrics(MeterRegistry meterRegistry, double sampleRate) {
+        AuthMetrics authMetrics = new AuthMetrics(meterRegistry);
+        ReflectionTestUtils.setField(authMetrics, "sampleRate", sampleRate);
+        return authMetrics;
+    }
+
+    // Связка без ротации: единственный ключ HS256 из секрета
+    public static JwtKeyRing staticKeyRing() {
+        JwtKeyRing keyRing = new JwtKeyRing(null, null, null);
+        ReflectionTestUtils.setField(keyRing, "secret", SECRET);
+        ReflectionTestUtils.setField(keyRing, "staticKid", "static");
+        ReflectionTestUtils.setField(keyRing, "algorithm", JwtKeyRing.HS256);
+        keyRing.init();
+        return keyRing;
+    }
+
+    public static JwtUtil jwtUtil(JwtKeyRing keyRing, AuthMetrics authMetrics) {
+        JwtUtil jwtUtil = new JwtUtil(authMetrics, keyRing);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(jwtUtil, "negativeCacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(jwtUtil, "negativeCacheTtl", Duration.ofMinutes(5));
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
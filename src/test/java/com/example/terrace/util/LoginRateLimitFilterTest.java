@@ -0,0 +1,77 @@
+package com.example.terrace.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка занятости email ограничена своей корзиной по IP: перебор адресов получает 429,
+ * а вход с того же IP по-прежнему считается по корзине входа
+ */
+class LoginRateLimitFilterTest {
+
+    private static final int LOOKUP_CAPACITY = 3;
+    private static final String IP = "203.0.113.50";
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        LoginRateLimiter limiter = new LoginRateLimiter(5, 1, 5, 1, LOOKUP_CAPACITY, 1,
+                10_000, Duration.ofMinutes(10));
+        filter = new LoginRateLimitFilter(limiter, meterRegistry);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "paths", List.of("/login", "/api/auth/login"));
+        ReflectionTestUtils.setField(filter, "lookupPaths", List.of("/api/auth/email-available"));
+    }
+
+    @Test
+    void emailLookupsBeyondCapacityAreRejected() throws Exception {
+        for (int i = 0; i < LOOKUP_CAPACITY; i++) {
+            assertThat(lookup("user-" + i + "@terrace.test").getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletResponse rejected = lookup("user-next@terrace.test");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+        assertThat(meterRegistry.get("auth.login.rate_limited").tag("limit", "lookup").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void exhaustedLookupBucketDoesNotBlockLogin() throws Exception {
+        for (int i = 0; i <= LOOKUP_CAPACITY; i++) {
+            lookup("user-" + i + "@terrace.test");
+        }
+
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+        login.setRemoteAddr(IP);
+        login.setParameter("email", "guest@terrace.test");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(login, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse lookup(String email) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/email-available");
+        request.setRemoteAddr(IP);
+        request.setParameter("email", email);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
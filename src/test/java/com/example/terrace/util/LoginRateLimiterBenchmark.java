@@ -0,0 +1,72 @@
+package com.example.terrace.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки LoginRateLimiter:
+ * - rejectHotKey - credential stuffing с одного IP: корзина пуста, каждый вызов - отказ;
+ * - admitSpreadKeys - обычный поток входов с множества IP, корзины не пустеют.
+ * Аллокации на вызов: добавить -prof gc.
+ * Запуск: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="LoginRateLimiterBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class LoginRateLimiterBenchmark {
+
+    private static final int KEYS = 10_000;
+    private static final String HOT_IP = "203.0.113.7";
+
+    private LoginRateLimiter hot;
+    private LoginRateLimiter spread;
+    private String[] ips;
+
+    @Setup
+    public void setUp() {
+        hot = new LoginRateLimiter(20, 20, 5, 5, 30, 30, 100_000, Duration.ofMinutes(10));
+        while (hot.tryAcquireIp(HOT_IP) == 0) {
+            // Опустошаем корзину: дальше только отказы
+        }
+        // Ёмкость с запасом на весь прогон: проверяется путь успешного CAS
+        spread = new LoginRateLimiter(Integer.MAX_VALUE / 2, Integer.MAX_VALUE / 2, 5, 5, 30, 30,
+                100_000, Duration.ofMinutes(10));
+        ips = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            ips[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public long rejectHotKey() {
+        return hot.tryAcquireIp(HOT_IP);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long rejectHotKey8() {
+        return hot.tryAcquireIp(HOT_IP);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long admitSpreadKeys8() {
+        return spread.tryAcquireIp(ips[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+}
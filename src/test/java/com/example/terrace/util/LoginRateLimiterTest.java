@@ -0,0 +1,138 @@
+package com.example.terrace.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Конкурентный тест token bucket: при одновременных попытках по одному ключу пропускается
+ * ровно ёмкость корзины (CAS не теряет и не дублирует токены), ключи друг другу не мешают,
+ * отказ не аллоцирует
+ */
+class LoginRateLimiterTest {
+
+    private static final int CAPACITY = 20;
+    // Токен в минуту: за время теста корзина не пополняется
+    private static final int PER_MINUTE = 1;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 500;
+
+    @Test
+    void concurrentAttemptsOnOneKeyAdmitExactlyCapacity() throws Exception {
+        LoginRateLimiter limiter = limiter();
+        AtomicInteger admitted = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                if (limiter.tryAcquireIp("203.0.113.7") == 0) {
+                    admitted.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(admitted.get()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void concurrentAttemptsOnDistinctKeysDoNotInterfere() throws Exception {
+        LoginRateLimiter limiter = limiter();
+        AtomicIntegerArray admitted = new AtomicIntegerArray(THREADS);
+
+        // Каждый поток бьёт в свой email и в общий - у каждого своя полная корзина
+        runConcurrently(thread -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                if (limiter.tryAcquireEmail("user-" + thread + "@terrace.test") == 0) {
+                    admitted.incrementAndGet(thread);
+                }
+                limiter.tryAcquireEmail("shared@terrace.test");
+            }
+        });
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            assertThat(admitted.get(thread)).isEqualTo(CAPACITY);
+        }
+        assertThat(limiter.tryAcquireEmail("SHARED@terrace.test")).as("email key ignores case").isPositive();
+    }
+
+    @Test
+    void rejectionReportsWaitUntilNextToken() {
+        LoginRateLimiter limiter = limiter();
+        for (int i = 0; i < CAPACITY; i++) {
+            assertThat(limiter.tryAcquireIp("198.51.100.1")).isZero();
+        }
+
+        long waitNanos = limiter.tryAcquireIp("198.51.100.1");
+
+        assertThat(waitNanos).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1).toNanos());
+    }
+
+    @Test
+    void rejectionDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "thread allocation counter not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        LoginRateLimiter limiter = limiter();
+        String ip = "192.0.2.10";
+        long rejected = 0;
+        // Прогрев: корзина пустеет, пути отказа компилируются JIT
+        for (int i = 0; i < 200_000; i++) {
+            rejected += limiter.tryAcquireIp(ip) > 0 ? 1 : 0;
+        }
+
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            rejected += limiter.tryAcquireIp(ip) > 0 ? 1 : 0;
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertThat(rejected).isEqualTo(200_000 + 100_000 - CAPACITY);
+        // Меньше байта на отказ - шум счётчика, а не объект на каждый вызов
+        assertThat(allocated).isLessThan(100_000);
+    }
+
+    private static LoginRateLimiter limiter() {
+        return new LoginRateLimiter(CAPACITY, PER_MINUTE, CAPACITY, PER_MINUTE, CAPACITY, PER_MINUTE,
+                10_000, Duration.ofMinutes(10));
+    }
+
+    private interface PerThread {
+        void run(int thread);
+    }
+
+    private static void runConcurrently(PerThread work) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    work.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.terrace.util;
+
+import com.example.terrace.service.MenuCatalog;
+import com.example.terrace.service.PageCache;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PageCacheFilterTest {
+
+    private PageCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new PageCacheFilter(new PageCache(mock(MenuCatalog.class)));
+        ReflectionTestUtils.setField(filter, "enabled", true);
+    }
+
+    @Test
+    void gzipIsAcceptedOnlyWithPositiveQuality() {
+        assertThat(PageCacheFilter.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(PageCacheFilter.acceptsGzip("br;q=1.0, gzip;q=0.8")).isTrue();
+        assertThat(PageCacheFilter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PageCacheFilter.acceptsGzip("gzip; q=0.000, *")).isFalse();
+        assertThat(PageCacheFilter.acceptsGzip("*;q=0.5")).isTrue();
+        assertThat(PageCacheFilter.acceptsGzip("identity")).isFalse();
+        assertThat(PageCacheFilter.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void missAndHitCarryTheSameCacheHeaders() throws Exception {
+        MockHttpServletResponse miss = get("gzip");
+        assertThat(miss.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(miss.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+        assertThat(miss.getHeader(HttpHeaders.ETAG)).isNotNull();
+
+        MockHttpServletResponse hit = get("gzip");
+        assertThat(hit.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(hit.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+        assertThat(hit.getHeader(HttpHeaders.ETAG)).isEqualTo(miss.getHeader(HttpHeaders.ETAG));
+        assertThat(hit.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
+    @Test
+    void hitIsNotCompressedWhenGzipIsRefused() throws Exception {
+        get(null);
+
+        MockHttpServletResponse hit = get("gzip;q=0, identity");
+
+        assertThat(hit.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(hit.getContentAsString()).isEqualTo("<html>home</html>");
+    }
+
+    private MockHttpServletResponse get(String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HomePage()));
+        return response;
+    }
+
+    private static class HomePage extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setContentType("text/html;charset=UTF-8");
+            response.getWriter().write("<html>home</html>");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.terrace.util;
+
+import com.example.terrace.event.UserChangedEvent;
+import com.example.terrace.repository.RevokedSubjectRepository;
+import com.example.terrace.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TokenRevocationServiceTest {
+
+    private static final String EMAIL = "guest@terrace.test";
+
+    private RevokedSubjectRepository revokedSubjectRepository;
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revokedSubjectRepository = mock(RevokedSubjectRepository.class);
+        revocationService = new TokenRevocationService(
+                mock(RevokedTokenRepository.class), revokedSubjectRepository, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void userChangeRevokesEarlierTokensAndPersistsCutoff() {
+        Claims earlier = claimsIssuedAt(Instant.now().minusSeconds(60));
+
+        revocationService.onUserChanged(new UserChangedEvent(EMAIL));
+
+        assertThat(revocationService.isRevoked(earlier)).isTrue();
+        verify(revokedSubjectRepository).upsert(eq(EMAIL), any(Instant.class));
+    }
+
+    @Test
+    void tokenIssuedInTheSameSecondAsRevocationStaysValid() {
+        revocationService.revokeAllFor(EMAIL);
+
+        // iat округляется до секунды: токен, выданный сразу после отзыва, не должен попасть под него
+        Claims reissued = claimsIssuedAt(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+        assertThat(revocationService.isRevoked(reissued)).isFalse();
+    }
+
+    private static Claims claimsIssuedAt(Instant issuedAt) {
+        return Jwts.claims()
+                .subject(EMAIL)
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(issuedAt.plus(Duration.ofHours(24))))
+                .build();
+    }
+}